@@ -0,0 +1,42 @@
+package benchmarks;
+
+import constants.JpaConst;
+import utils.DBUtil;
+
+/**
+ * ベンチマーク用の組み込みDB(H2 インメモリ, MySQL互換モード)を準備するクラス
+ */
+public final class BenchmarkDatabase {
+
+    /**
+     * 作成する従業員数
+     */
+    public static final int EMPLOYEES = 100;
+
+    /**
+     * 従業員1人あたりの日報数
+     */
+    public static final int REPORTS_PER_EMPLOYEE = 100;
+
+    private static boolean initialized = false;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * 組み込みDBのプロファイルを選択し、テストデータを投入する(フォーク毎に1回のみ実行)
+     */
+    public static synchronized void start() {
+        if (initialized) {
+            return;
+        }
+
+        System.setProperty(JpaConst.DB_PROFILE_KEY, JpaConst.DB_PROFILE_EMBEDDED);
+        System.setProperty(JpaConst.DB_SEED_EMPLOYEES_KEY, String.valueOf(EMPLOYEES));
+        System.setProperty(JpaConst.DB_SEED_REPORTS_KEY, String.valueOf(EMPLOYEES * REPORTS_PER_EMPLOYEE));
+
+        //EntityManagerFactoryの生成時にテストデータが投入される
+        DBUtil.createEntityManager().close();
+        initialized = true;
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * 2つのJMH結果ファイル(JSON)を比較し、ベンチマーク毎の差分を表示するクラス
+ *
+ * 使い方: java -cp benchmarks/target/benchmarks.jar benchmarks.CompareResults 基準.json 今回.json [許容する悪化率(%)]
+ * 許容する悪化率を超えて悪化したベンチマークがある場合は終了コード1を返却する
+ */
+public class CompareResults {
+
+    /**
+     * 許容する悪化率(%)の既定値
+     */
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, JsonObject> baseline = load(args[0]);
+        Map<String, JsonObject> current = load(args[1]);
+
+        int regressions = 0;
+        System.out.println(String.format("%-70s %14s %14s %9s", "Benchmark", "Baseline", "Current", "Change"));
+
+        for (Map.Entry<String, JsonObject> entry : current.entrySet()) {
+            JsonObject now = entry.getValue().getAsJsonObject("primaryMetric");
+            String unit = now.get("scoreUnit").getAsString();
+            double nowScore = now.get("score").getAsDouble();
+
+            JsonObject base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(String.format("%-70s %14s %14.3f %9s  %s",
+                        entry.getKey(), "-", nowScore, "new", unit));
+                continue;
+            }
+
+            double baseScore = base.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+            double change = (nowScore - baseScore) / baseScore * 100.0;
+
+            //スループット計測(thrpt)は値が小さいほど、それ以外(avgt等)は値が大きいほど悪化
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().get("mode").getAsString());
+            double worse = higherIsBetter ? -change : change;
+
+            String mark = "";
+            if (worse > threshold) {
+                mark = "  << REGRESSION";
+                regressions++;
+            } else if (worse < -threshold) {
+                mark = "  improved";
+            }
+
+            System.out.println(String.format("%-70s %14.3f %14.3f %+8.1f%%  %s%s",
+                    entry.getKey(), baseScore, nowScore, change, unit, mark));
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * JMH結果ファイルを読み込み、ベンチマーク名(パラメータ含む)をキーとしたMapで返却する
+     * @param path ファイルのパス
+     * @return ベンチマーク名と結果のMap
+     * @throws IOException
+     */
+    private static Map<String, JsonObject> load(String path) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                results.put(key(result), result);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * ベンチマーク名とパラメータから比較用のキーを作成する
+     * (例: benchmarks.ConverterBenchmark.reportToViewList{authors=3, size=15})
+     * @param result JMHの結果1件
+     * @return キー
+     */
+    private static String key(JsonObject result) {
+        String name = result.get("benchmark").getAsString();
+
+        if (!result.has("params")) {
+            return name;
+        }
+
+        Map<String, String> params = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> p : result.getAsJsonObject("params").entrySet()) {
+            params.put(p.getKey(), p.getValue().getAsString());
+        }
+        return name + params;
+    }
+}
@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.EmployeeConverter;
+import actions.views.EmployeeView;
+import actions.views.ReportConverter;
+import actions.views.ReportView;
+import constants.JpaConst;
+import models.Employee;
+import models.Report;
+
+/**
+ * ReportConverter/EmployeeConverterによるリスト変換のベンチマーク
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+
+    /**
+     * 変換する件数(15: 一覧画面1ページ分, 1000: 一括出力相当)
+     */
+    @Param({ "15", "1000" })
+    public int size;
+
+    /**
+     * 日報の作成者の人数(一覧には同じ従業員の日報が複数含まれる)
+     */
+    @Param({ "3" })
+    public int authors;
+
+    private List<Report> reports;
+    private List<Employee> employees;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+
+        employees = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            employees.add(new Employee(i + 1, String.format("B%05d", i + 1), "従業員" + (i + 1),
+                    "0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF",
+                    JpaConst.ROLE_GENERAL, now, now, JpaConst.EMP_DEL_FALSE, 0));
+        }
+
+        reports = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            LocalDate day = LocalDate.now().minusDays(i);
+            reports.add(new Report(i + 1, employees.get(i % authors), day, "日報" + i, "本日の業務内容",
+                    now, now, day.atTime(9, 0), day.atTime(18, 0), 0));
+        }
+    }
+
+    @Benchmark
+    public List<ReportView> reportToViewList() {
+        return ReportConverter.toViewList(reports);
+    }
+
+    @Benchmark
+    public List<EmployeeView> employeeToViewList() {
+        return EmployeeConverter.toViewList(employees);
+    }
+}
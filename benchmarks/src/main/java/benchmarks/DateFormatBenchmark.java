@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import utils.DateTimeUtil;
+
+/**
+ * 一覧画面1ページ分(15行)の日付の表示用文字列への変換のベンチマーク
+ * fmt:parseDate / fmt:formatDate と同じ変換(文字列 → Date → 文字列)と、DateTimeUtilを比較する
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateFormatBenchmark {
+
+    private static final int ROWS = 15;
+
+    private final LocalDate[] dates = new LocalDate[ROWS];
+    private final LocalDateTime[] dateTimes = new LocalDateTime[ROWS];
+
+    public DateFormatBenchmark() {
+        LocalDateTime now = LocalDateTime.of(2021, 4, 1, 9, 0, 30);
+        for (int i = 0; i < ROWS; i++) {
+            dates[i] = now.toLocalDate().minusDays(i);
+            dateTimes[i] = now.minusDays(i);
+        }
+    }
+
+    /**
+     * fmt:parseDate / fmt:formatDate と同様に、行毎にSimpleDateFormatを生成して変換する
+     */
+    @Benchmark
+    public void fmtTags(Blackhole bh) throws ParseException {
+        for (int i = 0; i < ROWS; i++) {
+            Date day = new SimpleDateFormat("yyyy-MM-dd").parse(dates[i].toString());
+            bh.consume(new SimpleDateFormat("yyyy-MM-dd").format(day));
+
+            Date time = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").parse(dateTimes[i].toString());
+            bh.consume(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(time));
+        }
+    }
+
+    /**
+     * 共有のDateTimeFormatterで直接変換する(EL関数 dt:date / dt:dateTime)
+     */
+    @Benchmark
+    public void dateTimeUtil(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(DateTimeUtil.formatDate(dates[i]));
+            bh.consume(DateTimeUtil.formatDateTime(dateTimes[i]));
+        }
+    }
+}
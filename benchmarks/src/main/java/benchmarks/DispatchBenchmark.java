@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import constants.ForwardConst;
+import controllers.FrontController;
+
+/**
+ * FrontController/ActionBaseによるリクエストの振り分け処理のベンチマーク
+ * (jspへのフォワードはスタブで何もしないため、Actionの生成とcommandメソッドの呼び出しまでを計測する)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    private FrontController controller;
+    private HttpSession session;
+    private HttpServletResponse response;
+    private Map<String, String> loginParams;
+    private Map<String, String> unknownParams;
+
+    @Setup(Level.Trial)
+    public void setup() throws ServletException {
+        BenchmarkDatabase.start();
+
+        ServletContext context = ServletStubs.context();
+        controller = new FrontController();
+        controller.init(ServletStubs.config(context));
+
+        session = ServletStubs.session();
+        response = ServletStubs.response();
+
+        //ログイン画面の表示(Actionの生成 + commandメソッドの呼び出し)
+        loginParams = new HashMap<>();
+        loginParams.put(ForwardConst.ACT.getValue(), ForwardConst.ACT_AUTH.getValue());
+        loginParams.put(ForwardConst.CMD.getValue(), ForwardConst.CMD_SHOW_LOGIN.getValue());
+
+        //該当するActionクラスがない場合(ClassNotFoundExceptionを経由してUnknownActionに振り分けられる)
+        unknownParams = new HashMap<>();
+        unknownParams.put(ForwardConst.ACT.getValue(), "NoSuch");
+        unknownParams.put(ForwardConst.CMD.getValue(), ForwardConst.CMD_INDEX.getValue());
+    }
+
+    @Benchmark
+    public void dispatchShowLogin() throws ServletException, IOException {
+        controller.service(ServletStubs.request("GET", loginParams, session), response);
+    }
+
+    @Benchmark
+    public void dispatchUnknownAction() throws ServletException, IOException {
+        controller.service(ServletStubs.request("GET", unknownParams, session), response);
+    }
+}
@@ -0,0 +1,125 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.EmployeeView;
+import actions.views.ReportSummaryView;
+import actions.views.ReportView;
+import constants.JpaConst;
+import services.EmployeeService;
+import services.ReportService;
+
+/**
+ * ReportServiceの各問い合わせのベンチマーク(組み込みDBを使用)
+ * 実際のリクエストと同様に、1回の呼び出し毎にServiceの生成とクローズを行う
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportServiceBenchmark {
+
+    private EmployeeView employee;
+    private int lastPage;
+    private LocalDate reportDate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkDatabase.start();
+
+        EmployeeService employeeService = new EmployeeService();
+        employee = employeeService.findOne(1);
+        employeeService.close();
+
+        long reports = (long) BenchmarkDatabase.EMPLOYEES * BenchmarkDatabase.REPORTS_PER_EMPLOYEE;
+        lastPage = (int) ((reports - 1) / JpaConst.ROW_PER_PAGE) + 1;
+        reportDate = LocalDate.now().minusDays(1);
+    }
+
+    @Benchmark
+    public List<ReportSummaryView> getAllPerPageFirst() {
+        ReportService service = new ReportService();
+        try {
+            return service.getAllPerPage(1);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public List<ReportSummaryView> getAllPerPageLast() {
+        ReportService service = new ReportService();
+        try {
+            return service.getAllPerPage(lastPage);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public long countAll() {
+        ReportService service = new ReportService();
+        try {
+            return service.countAll();
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public List<ReportSummaryView> getMinePerPage() {
+        ReportService service = new ReportService();
+        try {
+            return service.getMinePerPage(employee, 1);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public long countAllMine() {
+        ReportService service = new ReportService();
+        try {
+            return service.countAllMine(employee);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public ReportView findOne() {
+        ReportService service = new ReportService();
+        try {
+            return service.findOne(1);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<ReportView> findByReportDate() {
+        ReportService service = new ReportService();
+        try {
+            return service.findByReportDate(employee, reportDate);
+        } finally {
+            service.close();
+        }
+    }
+}
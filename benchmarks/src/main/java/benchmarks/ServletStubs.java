@@ -0,0 +1,176 @@
+package benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * ベンチマーク用にサーブレットAPIの最小限のスタブを作成するクラス
+ * (コンテナを起動せずにFrontController/ActionBaseの処理を呼び出すために使用する)
+ */
+public final class ServletStubs {
+
+    private ServletStubs() {
+    }
+
+    /**
+     * 何もしないRequestDispatcher(jspへのフォワードは計測対象外とする)
+     */
+    private static final RequestDispatcher NOOP_DISPATCHER = (RequestDispatcher) Proxy.newProxyInstance(
+            ServletStubs.class.getClassLoader(),
+            new Class<?>[] { RequestDispatcher.class },
+            (proxy, method, args) -> null);
+
+    /**
+     * ServletContextのスタブを作成する
+     * @return ServletContext
+     */
+    public static ServletContext context() {
+        Map<String, Object> attributes = new HashMap<>();
+
+        return (ServletContext) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { ServletContext.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    case "getContextPath":
+                        return "";
+                    case "log":
+                        return null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * ServletConfigのスタブを作成する
+     * @param context ServletContext
+     * @return ServletConfig
+     */
+    public static ServletConfig config(ServletContext context) {
+        return (ServletConfig) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { ServletConfig.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getServletContext":
+                        return context;
+                    case "getServletName":
+                        return "FrontController";
+                    case "getInitParameterNames":
+                        return Collections.emptyEnumeration();
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * HttpSessionのスタブを作成する
+     * @return HttpSession
+     */
+    public static HttpSession session() {
+        Map<String, Object> attributes = new HashMap<>();
+
+        return (HttpSession) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpSession.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getId":
+                        return "benchmark-session";
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    case "removeAttribute":
+                        attributes.remove(args[0]);
+                        return null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * HttpServletRequestのスタブを作成する
+     * @param httpMethod HTTPメソッド
+     * @param parameters リクエストパラメータ
+     * @param session セッション
+     * @return HttpServletRequest
+     */
+    public static HttpServletRequest request(String httpMethod, Map<String, String> parameters, HttpSession session) {
+        Map<String, Object> attributes = new HashMap<>();
+
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getMethod":
+                        return httpMethod;
+                    case "getParameter":
+                        return parameters.get(args[0]);
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    case "removeAttribute":
+                        attributes.remove(args[0]);
+                        return null;
+                    case "getSession":
+                        return session;
+                    case "getContextPath":
+                    case "getServletPath":
+                        return "";
+                    case "getRequestDispatcher":
+                        return NOOP_DISPATCHER;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * 何も出力しないHttpServletResponseのスタブを作成する
+     * @return HttpServletResponse
+     */
+    public static HttpServletResponse response() {
+        return (HttpServletResponse) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class },
+                (proxy, method, args) -> defaultValue(method.getReturnType()));
+    }
+
+    /**
+     * プリミティブ型の戻り値の既定値を返却する
+     * @param type 戻り値の型
+     * @return 既定値
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
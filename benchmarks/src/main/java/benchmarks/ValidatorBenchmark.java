@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import constants.AttributeConst;
+import models.validators.ReportValidator;
+import services.ReportService;
+
+/**
+ * ReportValidator.validateのベンチマーク
+ * (前日・翌日の日報との出勤・退勤時刻の重複チェックを含む)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidatorBenchmark {
+
+    private ReportService service;
+    private EmployeeView ev;
+    private ReportView rv;
+    private ReportView ra;
+    private ReportView rb;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkDatabase.start();
+        service = new ReportService();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate day = LocalDate.now().plusDays(1);
+
+        ev = new EmployeeView(1, "B00001", "従業員1", null,
+                AttributeConst.ROLE_ADMIN.getIntegerValue(), now, now,
+                AttributeConst.DEL_FLAG_FALSE.getIntegerValue(), 0);
+
+        rv = new ReportView(null, ev, day, "日報", "本日の業務内容", null, null,
+                day.atTime(9, 0), day.atTime(18, 0), null, null);
+
+        //前日・翌日の日報(出勤・退勤時刻の重複チェックに使用される)
+        rb = new ReportView(2, ev, day.minusDays(1), "前日の日報", "前日の業務内容", now, now,
+                day.minusDays(1).atTime(9, 0), day.minusDays(1).atTime(18, 0), 0, null);
+        ra = new ReportView(3, ev, day.plusDays(1), "翌日の日報", "翌日の業務内容", now, now,
+                day.plusDays(1).atTime(9, 0), day.plusDays(1).atTime(18, 0), 0, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return ReportValidator.validate(ra, rb, ev, rv, service);
+    }
+}
@@ -0,0 +1,43 @@
+package launcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 起動処理の各段階の所要時間を記録するクラス
+ */
+public class BootTimer {
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final long jvmStart;
+    private long last;
+
+    public BootTimer() {
+        //JVMの起動からmainメソッドが呼び出されるまでの時間を最初の段階とする
+        jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        last = System.currentTimeMillis();
+        phases.put("jvm", last - jvmStart);
+    }
+
+    /**
+     * 前回の記録からの経過時間を、指定した段階の所要時間として記録する
+     * @param phase 段階の名前
+     */
+    public synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        phases.merge(phase, now - last, Long::sum);
+        last = now;
+    }
+
+    /**
+     * 各段階の所要時間を表示する
+     */
+    public synchronized void print() {
+        System.out.println("boot phases (ms):");
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            System.out.println(String.format("  %-20s %6d", entry.getKey(), entry.getValue()));
+        }
+        System.out.println(String.format("  %-20s %6d", "total", last - jvmStart));
+    }
+}
@@ -0,0 +1,221 @@
+package launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.servlet.ServletContext;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.JarResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+import org.apache.jasper.Constants;
+import org.apache.jasper.compiler.JspUtil;
+import org.apache.jasper.servlet.JasperInitializer;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.apache.tomcat.util.scan.StandardJarScanFilter;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import controllers.FrontController;
+import filters.AdmissionFilter;
+import filters.EncodingFilter;
+import filters.LoginFilter;
+import listeners.JspPrecompileListener;
+import listeners.PropertiesListener;
+
+/**
+ * アプリケーションを組み込みTomcatで起動するクラス
+ *
+ * web.xmlの解析とアノテーション(@WebServlet等)のクラスパス探索は行わず、
+ * サーブレット・フィルタ・リスナーを明示的に登録する
+ */
+public class EmbeddedServer {
+
+    /**
+     * jar内でjsp・cssを格納しているパス
+     */
+    private static final String WEBAPP_IN_JAR = "/webapp";
+
+    private final Tomcat tomcat;
+    private final Context context;
+
+    /**
+     * @param port 待ち受けポート(0の場合は空いているポートを使用する)
+     * @param webapp jsp・cssを配置したディレクトリ(nullの場合はjar内の /webapp を使用する)
+     * @param timer 起動時間の記録
+     */
+    public EmbeddedServer(int port, Path webapp, BootTimer timer) throws IOException {
+        Path baseDir = Files.createTempDirectory("daily_report_system-tomcat");
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(port);
+        tomcat.getConnector().setURIEncoding("UTF-8");
+
+        //web.xml・アノテーションを使用しない空のコンテキストを作成する
+        context = tomcat.addContext("", baseDir.toString());
+        context.setIgnoreAnnotations(true);
+        context.setJarScanner(jarScanner());
+        context.setResources(resources(context, webapp));
+
+        //既定のサーブレット(静的ファイル・jsp)とMIMEタイプを登録する
+        Tomcat.initWebappDefaults(context);
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+
+        registerApplication();
+
+        //jar内のjspを使用する場合は、ビルド時にコンパイルしたJSPのサーブレットを登録する
+        //(--webappを指定した場合は、編集したjspを反映するため従来通り初回アクセス時にコンパイルする)
+        if (webapp == null) {
+            context.addServletContainerInitializer((classes, ctx) -> registerPrecompiledJsps(ctx), null);
+        }
+
+        //コンテキストの起動(リスナー・フィルタ・サーブレットの初期化)に要した時間を記録する
+        context.addLifecycleListener(event -> {
+            if (Lifecycle.BEFORE_START_EVENT.equals(event.getType())) {
+                timer.mark("server.init");
+            } else if (Lifecycle.AFTER_START_EVENT.equals(event.getType())) {
+                timer.mark("context.start");
+            }
+        });
+    }
+
+    /**
+     * web.xmlおよび各クラスのアノテーションと同じ内容で、サーブレット・フィルタ・リスナーを登録する
+     */
+    private void registerApplication() {
+        //PropertiesListener, JspPrecompileListener (@WebListener)
+        context.addApplicationListener(PropertiesListener.class.getName());
+        context.addApplicationListener(JspPrecompileListener.class.getName());
+
+        //EncodingFilter, LoginFilter, AdmissionFilter (@WebFilter(urlPatterns = "/*", asyncSupported = true))
+        //文字コードの設定を先に行い、受付制御は未ログインのリクエストをリダイレクトした後に行う
+        addFilter("EncodingFilter", EncodingFilter.class.getName());
+        addFilter("LoginFilter", LoginFilter.class.getName());
+        addFilter("AdmissionFilter", AdmissionFilter.class.getName());
+
+        //FrontController (@WebServlet(urlPatterns = "/", asyncSupported = true))
+        Tomcat.addServlet(context, "FrontController", new FrontController()).setAsyncSupported(true);
+        context.addServletMappingDecoded("/", "FrontController");
+
+        //cssは既定のサーブレットで返却する(web.xml)
+        context.addServletMappingDecoded("*.css", "default");
+    }
+
+    /**
+     * プリコンパイル済みのJSPのサーブレットを、JSPのパスにマッピングする(WARのweb.xmlと同じ内容)
+     * クラス名はJspCと同じ規則で求める(例: /WEB-INF/views/reports/index.jsp → org.apache.jsp.WEB_002dINF.views.reports.index_jsp)
+     */
+    private static void registerPrecompiledJsps(ServletContext ctx) {
+        for (String jsp : JspPrecompileListener.findJsps(ctx, JspPrecompileListener.VIEW_ROOT)) {
+            int slash = jsp.lastIndexOf('/');
+            String className = Constants.JSP_PACKAGE_NAME + "."
+                    + JspUtil.makeJavaPackage(jsp.substring(1, slash)) + "."
+                    + JspUtil.makeJavaIdentifier(jsp.substring(slash + 1));
+
+            try {
+                Class.forName(className, false, ctx.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                //プリコンパイルされていない(JspPrecompileListenerで検出する)
+                continue;
+            }
+            ctx.addServlet(className, className).addMapping(jsp);
+        }
+    }
+
+    /**
+     * 全てのURLに適用するフィルタを登録する(非同期処理を行うFrontControllerの前段に置くため、非同期処理に対応させる)
+     */
+    private void addFilter(String name, String className) {
+        FilterDef def = new FilterDef();
+        def.setFilterName(name);
+        def.setFilterClass(className);
+        def.setAsyncSupported("true");
+        context.addFilterDef(def);
+
+        FilterMap map = new FilterMap();
+        map.setFilterName(name);
+        map.addURLPatternDecoded("/*");
+        context.addFilterMap(map);
+    }
+
+    /**
+     * jarの探索はJSTLのTLDを含むjarに限定し、アノテーション・web-fragmentの探索は行わない
+     */
+    private static StandardJarScanner jarScanner() {
+        StandardJarScanFilter filter = new StandardJarScanFilter();
+        filter.setDefaultPluggabilityScan(false);
+        filter.setPluggabilityScan("");
+        filter.setDefaultTldScan(false);
+        //launcher.jarはマニフェストのClass-Pathから依存jarを辿るために含める
+        filter.setTldScan("launcher.jar,taglibs-standard-impl-*.jar");
+
+        StandardJarScanner scanner = new StandardJarScanner();
+        scanner.setJarScanFilter(filter);
+        return scanner;
+    }
+
+    /**
+     * jsp・cssの配置場所を設定する
+     */
+    private static WebResourceRoot resources(Context context, Path webapp) throws IOException {
+        WebResourceRoot root = new StandardRoot(context);
+
+        if (webapp != null) {
+            root.addPreResources(new DirResourceSet(root, "/", webapp.toAbsolutePath().toString(), "/"));
+            return root;
+        }
+
+        File codeSource;
+        try {
+            codeSource = new File(EmbeddedServer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+
+        if (codeSource.isDirectory()) {
+            //IDE等でクラスディレクトリから起動した場合
+            root.addPreResources(new DirResourceSet(root, "/",
+                    Paths.get(codeSource.getPath(), WEBAPP_IN_JAR).toString(), "/"));
+        } else {
+            root.addPreResources(new JarResourceSet(root, "/", codeSource.getPath(), WEBAPP_IN_JAR));
+        }
+        return root;
+    }
+
+    /**
+     * サーバーを起動する
+     */
+    public void start() throws LifecycleException {
+        tomcat.start();
+    }
+
+    /**
+     * サーバーを停止する
+     */
+    public void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    public int getPort() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    public Tomcat getTomcat() {
+        return tomcat;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+}
@@ -0,0 +1,72 @@
+package launcher;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import constants.ExecutorConst;
+import utils.DBUtil;
+
+/**
+ * 日報管理システムを組み込みTomcatで起動する実行クラス
+ *
+ * 使い方: java [-Ddrs.db.profile=embedded] -jar launcher/target/launcher.jar [--オプション=値 ...]
+ *   --port     待ち受けポート(既定: 8080)
+ *   --webapp   jsp・cssを配置したディレクトリ(既定: jar内に格納したもの)
+ *   --preload  起動時にEntityManagerFactoryを生成する(既定: true)
+ *   --threads  リクエストを処理するスレッドの種類(platform: スレッドプール 既定 / virtual: 仮想スレッド JDK 21以降)
+ *              (-Ddrs.async.thread-mode と同じ 仮想スレッドの場合はキャリアスレッドに固定された箇所を標準出力に出力する)
+ */
+public class Launcher {
+
+    public static void main(String[] args) throws Exception {
+        BootTimer timer = new BootTimer();
+        Map<String, String> options = parse(args);
+
+        if (options.containsKey("threads")) {
+            //FrontController(ActionExecutor)の初期化時に参照される
+            System.setProperty(ExecutorConst.ASYNC_THREAD_MODE_KEY, options.get("threads"));
+        }
+
+        EmbeddedServer server = new EmbeddedServer(
+                Integer.parseInt(options.getOrDefault("port", "8080")),
+                options.containsKey("webapp") ? Paths.get(options.get("webapp")) : null,
+                timer);
+        timer.mark("configure");
+
+        server.start();
+        timer.mark("connector.start");
+
+        if (Boolean.parseBoolean(options.getOrDefault("preload", "true"))) {
+            //最初のリクエストを待たずにEntityManagerFactory(Hibernate)を初期化する
+            DBUtil.createEntityManager().close();
+            timer.mark("persistence");
+        }
+
+        timer.print();
+        System.out.println("daily_report_system started on port " + server.getPort()
+                + " (threads: " + System.getProperty(ExecutorConst.ASYNC_THREAD_MODE_KEY, ExecutorConst.THREAD_MODE_PLATFORM) + ")");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }));
+        server.getTomcat().getServer().await();
+    }
+
+    /**
+     * --key=value 形式の引数を解析する
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
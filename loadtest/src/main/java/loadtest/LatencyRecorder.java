@@ -0,0 +1,96 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ルート毎の応答時間を記録するクラス(仮想ユーザー毎に1つ作成し、集計時にマージする)
+ */
+public class LatencyRecorder {
+
+    private final Map<Route, long[]> latencies = new EnumMap<>(Route.class);
+    private final Map<Route, Integer> counts = new EnumMap<>(Route.class);
+    private final Map<Route, Integer> errors = new EnumMap<>(Route.class);
+
+    /**
+     * 応答時間を1件記録する
+     * @param route ルート
+     * @param nanos 応答時間(ナノ秒)
+     * @param error エラーかどうか
+     */
+    public void record(Route route, long nanos, boolean error) {
+        long[] values = latencies.computeIfAbsent(route, r -> new long[1024]);
+        int count = counts.getOrDefault(route, 0);
+
+        if (count == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            latencies.put(route, values);
+        }
+        values[count] = nanos;
+        counts.put(route, count + 1);
+
+        if (error) {
+            errors.merge(route, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 他の記録を取り込む
+     * @param other 取り込む記録
+     */
+    public void merge(LatencyRecorder other) {
+        for (Map.Entry<Route, Integer> entry : other.counts.entrySet()) {
+            long[] values = other.latencies.get(entry.getKey());
+            for (int i = 0; i < entry.getValue(); i++) {
+                record(entry.getKey(), values[i], false);
+            }
+        }
+        for (Map.Entry<Route, Integer> entry : other.errors.entrySet()) {
+            errors.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    /**
+     * ルート毎のスループットと応答時間のパーセンタイルを表示する
+     * @param seconds 計測時間(秒)
+     */
+    public void print(double seconds) {
+        System.out.println(String.format("%-16s %9s %7s %9s %9s %9s %9s %9s",
+                "route", "requests", "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)"));
+
+        long total = 0;
+        long totalErrors = 0;
+        for (Route route : Route.values()) {
+            int count = counts.getOrDefault(route, 0);
+            if (count == 0) {
+                continue;
+            }
+            long[] values = Arrays.copyOf(latencies.get(route), count);
+            Arrays.sort(values);
+            int error = errors.getOrDefault(route, 0);
+
+            System.out.println(String.format("%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f",
+                    route.getLabel(), count, error, count / seconds,
+                    millis(percentile(values, 50)), millis(percentile(values, 90)),
+                    millis(percentile(values, 99)), millis(values[values.length - 1])));
+
+            total += count;
+            totalErrors += error;
+        }
+
+        System.out.println(String.format("%-16s %9d %7d %9.1f", "total", total, totalErrors, total / seconds));
+    }
+
+    /**
+     * ソート済みの値から指定したパーセンタイルの値を返却する
+     */
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,246 @@
+package loadtest;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 負荷試験の実行クラス
+ *
+ * WARを組み込みTomcatで起動し(組み込みDBのプロファイルを使用)、複数の従業員でログインした仮想ユーザーから
+ * トップページ・日報一覧/詳細/登録/更新・従業員一覧を重み付けして実行し、ルート毎のスループットと応答時間を表示する
+ *
+ * 使い方: java -jar loadtest/target/loadtest.jar [--オプション=値 ...]
+ *   --war       起動するWARファイル(既定: target/daily_report_system.war)
+ *   --url       起動済みのサーバーに対して実行する場合のURL(指定時はWARを起動しない)
+ *   --port      WARを起動するポート(既定: 0 空いているポート)
+ *   --users     仮想ユーザー数(既定: 50)
+ *   --warmup    ウォームアップ時間(秒 既定: 10)
+ *   --duration  計測時間(秒 既定: 60)
+ *   --think     操作の間隔(ミリ秒 既定: 0)
+ *   --employees 投入する従業員数(既定: 仮想ユーザー数+1 と 100 の大きい方)
+ *   --reports   投入する日報数(既定: 10000)
+ *   --mix       操作の比率(例: TOP_INDEX:35,REP_INDEX:25,REP_SHOW:20,REP_CREATE:5,REP_UPDATE:10,EMP_INDEX:5)
+ *   --threads   WARでリクエストを処理するスレッドの種類(platform: スレッドプール 既定 / virtual: 仮想スレッド JDK 21以降)
+ */
+public class LoadTest {
+
+    private final String baseUrl;
+    private final int users;
+    private final int reports;
+    private final int maxPage;
+    private final long thinkMillis;
+    private final Route[] routes;
+    private final int[] cumulativeWeights;
+
+    private VirtualUser admin;
+    private volatile long measureFrom;
+    private volatile long measureUntil;
+
+    public LoadTest(String baseUrl, int users, int reports, long thinkMillis, Map<Route, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.reports = reports;
+        this.maxPage = 10;
+        this.thinkMillis = thinkMillis;
+
+        List<Route> list = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int sum = 0;
+        for (Map.Entry<Route, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                sum += entry.getValue();
+                list.add(entry.getKey());
+                weights.add(sum);
+            }
+        }
+        this.routes = list.toArray(new Route[0]);
+        this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int employees = Integer.parseInt(options.getOrDefault("employees", String.valueOf(Math.max(users + 1, 100))));
+        int reports = Integer.parseInt(options.getOrDefault("reports", "10000"));
+        long think = Long.parseLong(options.getOrDefault("think", "0"));
+
+        WarServer server = null;
+        String url = options.get("url");
+        if (url == null) {
+            //組み込みDBのプロファイルでWARを起動し、最初のDB接続時にテストデータを投入させる
+            System.setProperty("drs.db.profile", "embedded");
+            System.setProperty("drs.db.seed.employees", String.valueOf(employees));
+            System.setProperty("drs.db.seed.reports", String.valueOf(reports));
+            System.setProperty("drs.async.thread-mode", options.getOrDefault("threads", "platform"));
+
+            server = WarServer.start(
+                    Paths.get(options.getOrDefault("war", "target/daily_report_system.war")),
+                    Integer.parseInt(options.getOrDefault("port", "0")));
+            url = "http://localhost:" + server.getPort() + "/";
+        }
+
+        LoadTest test = new LoadTest(url, users, reports, think, parseMix(options.get("mix")));
+        try {
+            test.run(warmup, duration);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * 全仮想ユーザーをログインさせ、ウォームアップ後に指定時間計測して結果を表示する
+     * @param warmupSeconds ウォームアップ時間(秒)
+     * @param durationSeconds 計測時間(秒)
+     */
+    public void run(int warmupSeconds, int durationSeconds) throws Exception {
+        //ログインの応答時間も計測対象とする
+        measureFrom = System.nanoTime();
+        measureUntil = Long.MAX_VALUE;
+
+        //社員番号 S1 は管理者(DBSeederが最初に登録する従業員)
+        admin = new VirtualUser(this, -1, "S1");
+        if (!admin.login()) {
+            throw new IllegalStateException("admin login failed: " + baseUrl);
+        }
+
+        List<VirtualUser> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(this, i, "S" + (i + 2));
+            if (!user.login()) {
+                throw new IllegalStateException("login failed: S" + (i + 2));
+            }
+            virtualUsers.add(user);
+        }
+
+        long now = System.nanoTime();
+        measureFrom = now + warmupSeconds * 1_000_000_000L;
+        measureUntil = measureFrom + durationSeconds * 1_000_000_000L;
+
+        List<Thread> threads = new ArrayList<>();
+        for (VirtualUser user : virtualUsers) {
+            Thread t = new Thread(user, "virtual-user");
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        LatencyRecorder total = new LatencyRecorder();
+        total.merge(admin.getRecorder());
+        for (VirtualUser user : virtualUsers) {
+            total.merge(user.getRecorder());
+        }
+
+        System.out.println(String.format("users=%d warmup=%ds duration=%ds think=%dms threads=%s url=%s",
+                users, warmupSeconds, durationSeconds, thinkMillis,
+                System.getProperty("drs.async.thread-mode", "-"), baseUrl));
+        total.print(durationSeconds);
+    }
+
+    /**
+     * 計測期間内の応答時間を記録する
+     */
+    void record(LatencyRecorder recorder, Route route, long start, boolean error) {
+        long end = System.nanoTime();
+        if (start >= measureFrom && end <= measureUntil) {
+            recorder.record(route, end - start, error);
+        }
+    }
+
+    /**
+     * 計測期間が終了したかどうか
+     */
+    boolean isFinished() {
+        return System.nanoTime() > measureUntil;
+    }
+
+    /**
+     * 重み付けに従って次に実行する操作を選択する
+     */
+    Route nextRoute() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return routes[i];
+            }
+        }
+        return routes[routes.length - 1];
+    }
+
+    /**
+     * 操作の間隔を空ける
+     */
+    void think() {
+        if (thinkMillis > 0) {
+            try {
+                Thread.sleep(thinkMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    int getReports() {
+        return reports;
+    }
+
+    int getMaxPage() {
+        return maxPage;
+    }
+
+    VirtualUser getAdmin() {
+        return admin;
+    }
+
+    /**
+     * --key=value 形式の引数を解析する
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * 操作の比率を解析する(指定がない場合は既定の比率)
+     */
+    private static Map<Route, Integer> parseMix(String mix) {
+        Map<Route, Integer> weights = new EnumMap<>(Route.class);
+
+        if (mix == null) {
+            for (Route route : Route.values()) {
+                weights.put(route, route.getDefaultWeight());
+            }
+            return weights;
+        }
+
+        for (String item : mix.split(",")) {
+            String[] pair = item.split(":");
+            weights.put(Route.valueOf(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
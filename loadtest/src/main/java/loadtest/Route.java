@@ -0,0 +1,38 @@
+package loadtest;
+
+/**
+ * 負荷試験で実行する操作(ルート)と、既定の実行比率を定義するEnumクラス
+ */
+public enum Route {
+
+    LOGIN("Auth.login", 0),
+    TOP_INDEX("Top.index", 35),
+    REP_INDEX("Report.index", 25),
+    REP_SHOW("Report.show", 20),
+    REP_CREATE("Report.create", 5),
+    REP_UPDATE("Report.update", 10),
+    EMP_INDEX("Employee.index", 5);
+
+    /**
+     * 表示名(Action.command)
+     */
+    private final String label;
+
+    /**
+     * 既定の実行比率
+     */
+    private final int defaultWeight;
+
+    private Route(String label, int defaultWeight) {
+        this.label = label;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,233 @@
+package loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 1人の従業員としてログインし、重み付けされた操作を繰り返し実行する仮想ユーザー
+ */
+public class VirtualUser implements Runnable {
+
+    private static final Pattern TOKEN = Pattern.compile("name=\"_token\" value=\"([^\"]+)\"");
+    private static final Pattern VERSION = Pattern.compile("name=\"version\" value=\"(\\d*)\"");
+    private static final Pattern MY_REPORT = Pattern.compile(
+            "class=\"report_date\">([0-9-]+)</td>.*?command=show&(?:amp;)?id=(\\d+)", Pattern.DOTALL);
+
+    /**
+     * ブラウザと同様に送信する言語(jspの日付の解析にリクエストのロケールが使用される)
+     */
+    private static final String ACCEPT_LANGUAGE = "ja-JP,ja;q=0.9";
+
+    private final LoadTest test;
+    private final int index;
+    private final String code;
+    private final HttpClient client;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    /**
+     * CSRF対策用トークン(セッションID)
+     */
+    private String token;
+
+    /**
+     * ログイン中の従業員の日報(id -> 日付) 日報の更新に使用する
+     */
+    private final Map<String, String> myReports = new LinkedHashMap<>();
+
+    /**
+     * 新規登録した日報の件数(登録する日付を重複させないために使用する)
+     */
+    private int created = 0;
+
+    /**
+     * @param test 負荷試験
+     * @param index 仮想ユーザーの番号(0から)
+     * @param code ログインする社員番号(パスワードも同じ文字列)
+     */
+    public VirtualUser(LoadTest test, int index, String code) {
+        this.test = test;
+        this.index = index;
+        this.code = code;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * ログインを行う
+     * @return ログインに成功した場合true
+     */
+    public boolean login() throws IOException, InterruptedException {
+        HttpResponse<String> page = get("?action=Auth&command=showLogin");
+        token = find(TOKEN, page.body());
+
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("code", code);
+        form.put("password", code);
+        form.put("_token", token);
+
+        long start = System.nanoTime();
+        HttpResponse<String> res = post("?action=Auth&command=login", form);
+        test.record(recorder, Route.LOGIN, start, res.statusCode() != 302);
+
+        if (res.statusCode() != 302) {
+            return false;
+        }
+        loadMyReports(get("?action=Top&command=index").body());
+        return true;
+    }
+
+    @Override
+    public void run() {
+        while (!test.isFinished()) {
+            Route route = test.nextRoute();
+            long start = System.nanoTime();
+            boolean error;
+
+            try {
+                error = execute(route);
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            test.record(recorder, route, start, error);
+            test.think();
+        }
+    }
+
+    /**
+     * 操作を1回実行する
+     * @param route 実行する操作
+     * @return エラーの場合true
+     */
+    private boolean execute(Route route) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        switch (route) {
+        case TOP_INDEX:
+            HttpResponse<String> top = get("?action=Top&command=index");
+            loadMyReports(top.body());
+            return top.statusCode() != 200;
+
+        case REP_INDEX:
+            return get("?action=Report&command=index&page=" + (1 + random.nextInt(test.getMaxPage())))
+                    .statusCode() != 200;
+
+        case REP_SHOW:
+            return get("?action=Report&command=show&id=" + (1 + random.nextInt(test.getReports())))
+                    .statusCode() != 200;
+
+        case REP_CREATE:
+            //仮想ユーザー毎に重ならない未来の日付で登録する
+            LocalDate day = LocalDate.now().plusDays(1 + (long) created++ * test.getUsers() + index);
+            return post("?action=Report&command=create", reportForm(null, day.toString(), "新規日報"))
+                    .statusCode() != 302;
+
+        case REP_UPDATE:
+            if (myReports.isEmpty()) {
+                return get("?action=Top&command=index").statusCode() != 200;
+            }
+            List<String> ids = new ArrayList<>(myReports.keySet());
+            String id = ids.get(random.nextInt(ids.size()));
+
+            //画面と同様に編集画面から日報のバージョンを取得して送信する(楽観的ロック)
+            HttpResponse<String> edit = get("?action=Report&command=edit&id=" + id);
+            Matcher version = VERSION.matcher(edit.body());
+            if (edit.statusCode() != 200 || !version.find()) {
+                return true;
+            }
+            Map<String, String> form = reportForm(id, myReports.get(id), "更新した日報");
+            form.put("version", version.group(1));
+            return post("?action=Report&command=update", form).statusCode() != 302;
+
+        case EMP_INDEX:
+            //従業員管理は管理者のセッションで実行する
+            return test.getAdmin().get("?action=Employee&command=index&page=" + (1 + random.nextInt(3)))
+                    .statusCode() != 200;
+
+        default:
+            throw new IllegalArgumentException(route.name());
+        }
+    }
+
+    /**
+     * 日報の登録・更新フォームの値を作成する
+     */
+    private Map<String, String> reportForm(String id, String day, String title) {
+        Map<String, String> form = new LinkedHashMap<>();
+        if (id != null) {
+            form.put("id", id);
+        }
+        form.put("report_date", day);
+        form.put("title", title);
+        form.put("content_msg", "負荷試験で作成した日報の内容");
+        form.put("clock_in", day + "T09:00");
+        form.put("clock_out", day + "T18:00");
+        form.put("_token", token);
+        return form;
+    }
+
+    /**
+     * トップページの一覧からログイン中の従業員の日報のidと日付を取得する
+     */
+    private void loadMyReports(String html) {
+        Matcher m = MY_REPORT.matcher(html);
+        while (m.find()) {
+            myReports.put(m.group(2), m.group(1));
+        }
+    }
+
+    HttpResponse<String> get(String query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(test.getBaseUrl() + query))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Language", ACCEPT_LANGUAGE)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String query, Map<String, String> form)
+            throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        for (Map.Entry<String, String> entry : form.entrySet()) {
+            body.add(entry.getKey() + "=" + URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(test.getBaseUrl() + query))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Language", ACCEPT_LANGUAGE)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String find(Pattern pattern, String html) {
+        Matcher m = pattern.matcher(html);
+        return m.find() ? m.group(1) : "";
+    }
+}
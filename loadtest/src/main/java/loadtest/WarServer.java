@@ -0,0 +1,50 @@
+package loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+
+/**
+ * WARファイルを組み込みTomcatで起動するクラス
+ */
+public class WarServer {
+
+    private final Tomcat tomcat;
+
+    private WarServer(Tomcat tomcat) {
+        this.tomcat = tomcat;
+    }
+
+    /**
+     * WARファイルをコンテキストパス "/" に配置してサーバーを起動する
+     * @param war WARファイルのパス
+     * @param port 待ち受けポート(0の場合は空いているポートを使用する)
+     * @return 起動したサーバー
+     */
+    public static WarServer start(Path war, int port) throws IOException, LifecycleException {
+        Path baseDir = Files.createTempDirectory("loadtest-tomcat");
+        Files.createDirectories(baseDir.resolve("webapps"));
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(port);
+        tomcat.getConnector();
+
+        tomcat.addWebapp("", war.toAbsolutePath().toString());
+        tomcat.start();
+
+        return new WarServer(tomcat);
+    }
+
+    public int getPort() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    public void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
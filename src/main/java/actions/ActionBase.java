@@ -5,6 +5,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.OptionalInt;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -12,9 +13,13 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import actions.views.Pagination;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.JpaConst;
 import constants.PropertyConst;
+import services.ReplicaRouter;
+import services.ServiceBase;
 
 
 /**
@@ -140,6 +145,23 @@ public abstract class ActionBase {
 
     }
 
+    /**
+     * Serviceの参照処理の接続先とエラーの出力先を設定し、返却する
+     * 登録・更新のリクエスト(POST)と、同じセッションで登録・更新を行ってから一定時間内のリクエストは、参照処理をプライマリで行う
+     * (登録・更新した内容がレプリカに反映される前に、画面に表示するデータをレプリカから取得しないようにする)
+     * @param service Serviceのインスタンス
+     * @return 引数に指定したServiceのインスタンス
+     */
+    protected <S extends ServiceBase> S openService(S service) {
+        Long lastWriteAt = getSessionScope(AttributeConst.LAST_WRITE_AT);
+        boolean sticky = lastWriteAt != null && ReplicaRouter.getInstance().isSticky(lastWriteAt);
+
+        service.setReadFromPrimary(sticky || "POST".equals(request.getMethod()));
+        service.setAfterCommit(() -> putSessionScope(AttributeConst.LAST_WRITE_AT, System.currentTimeMillis()));
+        service.setLog(context::log);
+        return service;
+    }
+
     /**
      * セッションIDを取得する
      * @return セッションID
@@ -153,27 +175,90 @@ public abstract class ActionBase {
      * @return 要求されているページ数(要求がない場合は1)
      */
     protected int getPage() {
-        int page;
-        page = toNumber(request.getParameter(AttributeConst.PAGE.getValue()));
-        if (page == Integer.MIN_VALUE) {
-            page = 1;
+        return parseNumber(request.getParameter(AttributeConst.PAGE.getValue())).orElse(1);
+    }
+
+    /**
+     * リクエストから1ページに表示するレコードの数を取得し、返却する
+     * @return 1ページに表示するレコードの数(要求がない・不正な場合は既定値 上限を超える場合は上限値)
+     */
+    protected int getPerPage() {
+        int perPage = parseNumber(request.getParameter(AttributeConst.PER_PAGE.getValue())).orElse(0);
+        if (perPage < 1) {
+            return JpaConst.ROW_PER_PAGE;
         }
-        return page;
+        return Math.min(perPage, JpaConst.ROW_PER_PAGE_MAX);
+    }
+
+    /**
+     * リクエストからページ送りのカーソル(前ページの最後のレコードのid)を取得し、返却する
+     * @return カーソル(要求がない場合、または1ページ目の場合はnull)
+     */
+    protected Integer getCursor() {
+        OptionalInt cursor = parseNumber(request.getParameter(AttributeConst.CURSOR.getValue()));
+        if (!cursor.isPresent() || getPage() <= 1) {
+            return null;
+        }
+        return cursor.getAsInt();
+    }
+
+    /**
+     * 一覧画面のページ送りの表示内容をリクエストスコープに設定する
+     * @param count 全件数
+     * @param page 表示中のページ数
+     * @param perPage 1ページに表示するレコードの数
+     * @param lastId 表示中のページの最後のレコードのid(次ページへのリンクにカーソルとして付与する)
+     */
+    protected void putPagination(long count, int page, int perPage, Integer lastId) {
+        putRequestScope(AttributeConst.PAGE, page); //ページ数
+        putRequestScope(AttributeConst.MAX_ROW, perPage); //1ページに表示するレコードの数
+        putRequestScope(AttributeConst.PAGINATION, new Pagination(count, page, perPage, lastId));
     }
 
     /**
      * 文字列を数値に変換する
      * @param strNumber 変換前文字列
-     * @return 変換後数値
+     * @return 変換後数値(変換できない場合はInteger.MIN_VALUE)
      */
     protected int toNumber(String strNumber) {
-        int number = 0;
-        try {
-            number = Integer.parseInt(strNumber);
-        } catch (Exception e) {
-            number = Integer.MIN_VALUE;
+        return parseNumber(strNumber).orElse(Integer.MIN_VALUE);
+    }
+
+    /**
+     * 文字列を数値に変換する
+     * 不正なリクエストパラメータ毎に例外(NumberFormatException)を発生させないよう、1文字ずつ検査して変換する
+     * @param strNumber 変換前文字列(先頭に符号を1つ付けることができる)
+     * @return 変換後数値(null・空文字・数字以外を含む・int型の範囲外の場合は空)
+     */
+    public static OptionalInt parseNumber(String strNumber) {
+        if (strNumber == null || strNumber.isEmpty()) {
+            return OptionalInt.empty();
+        }
+
+        boolean negative = strNumber.charAt(0) == '-';
+        int start = (negative || strNumber.charAt(0) == '+') ? 1 : 0;
+
+        //符号のみ、またはint型の桁数(10桁)を超える場合は変換しない
+        if (strNumber.length() == start || strNumber.length() - start > 10) {
+            return OptionalInt.empty();
+        }
+
+        long number = 0;
+        for (int i = start; i < strNumber.length(); i++) {
+            int digit = Character.digit(strNumber.charAt(i), 10);
+            if (digit < 0) {
+                return OptionalInt.empty();
+            }
+            number = number * 10 + digit;
+        }
+
+        if (negative) {
+            number = -number;
+        }
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            return OptionalInt.empty();
         }
-        return number;
+        return OptionalInt.of((int) number);
     }
 
     /**
@@ -1,6 +1,7 @@
 package actions;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import javax.servlet.ServletException;
 
@@ -25,7 +26,7 @@ public class AuthAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
 
-        service = new EmployeeService();
+        service = openService(new EmployeeService());
 
         //メソッドを実行
         invoke();
@@ -65,19 +66,17 @@ public class AuthAction extends ActionBase {
         String plainPass = getRequestParam(AttributeConst.EMP_PASS);
         String pepper = getContextScope(PropertyConst.PEPPER);
 
-        //有効な従業員か認証する
-        Boolean isValidEmployee = service.validateLogin(code, plainPass, pepper);
+        //有効な従業員か認証し、ログインした従業員のDBデータを取得する
+        Optional<EmployeeView> loginEmp = service.findByCodeAndPassword(code, plainPass, pepper);
 
-        if (isValidEmployee) {
+        if (loginEmp.isPresent()) {
             //認証成功の場合
 
             //CSRF対策 tokenのチェック
             if (checkToken()) {
 
-                //ログインした従業員のDBデータを取得
-                EmployeeView ev = service.findOne(code, plainPass, pepper);
                 //セッションにログインした従業員を設定
-                putSessionScope(AttributeConst.LOGIN_EMP, ev);
+                putSessionScope(AttributeConst.LOGIN_EMP, loginEmp.get());
                 //セッションにログイン完了のフラッシュメッセージを設定
                 putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGINED.getMessage());
                 //トップページへリダイレクト
@@ -5,10 +5,12 @@ import java.util.List;
 
 import javax.servlet.ServletException;
 
+import actions.forms.EmployeeForm;
+import actions.forms.FormBinder;
+import actions.views.EmployeeSummaryView;
 import actions.views.EmployeeView;
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;
 import constants.MessageConst;
 import constants.PropertyConst;
 import services.EmployeeService;
@@ -27,7 +29,7 @@ public class EmployeeAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
 
-        service = new EmployeeService();
+        service = openService(new EmployeeService());
 
         //メソッドを実行
         invoke();
@@ -47,15 +49,19 @@ public class EmployeeAction extends ActionBase {
 
             //指定されたページ数の一覧画面に表示するデータを取得
             int page = getPage();
-            List<EmployeeView> employees = service.getPerPage(page);
+            int perPage = getPerPage();
+            Integer cursor = getCursor();
+            List<EmployeeSummaryView> employees = cursor != null
+                    ? service.getAfter(cursor, perPage)
+                    : service.getPerPage(page, perPage);
 
             //全ての従業員データの件数を取得
             long employeeCount = service.countAll();
 
             putRequestScope(AttributeConst.EMPLOYEES, employees); //取得した従業員データ
             putRequestScope(AttributeConst.EMP_COUNT, employeeCount); //全ての従業員データの件数
-            putRequestScope(AttributeConst.PAGE, page); //ページ数
-            putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+            putPagination(employeeCount, page, perPage,
+                    employees.isEmpty() ? null : employees.get(employees.size() - 1).getId()); //ページ送り
 
             //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
             String flush = getSessionScope(AttributeConst.FLUSH);
@@ -99,21 +105,14 @@ public class EmployeeAction extends ActionBase {
         if (checkAdmin() && checkToken()) { //追記
 
             //パラメータの値を元に従業員情報のインスタンスを作成する
-            EmployeeView ev = new EmployeeView(
-                    null,
-                    getRequestParam(AttributeConst.EMP_CODE),
-                    getRequestParam(AttributeConst.EMP_NAME),
-                    getRequestParam(AttributeConst.EMP_PASS),
-                    toNumber(getRequestParam(AttributeConst.EMP_ADMIN_FLG)),
-                    null,
-                    null,
-                    AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+            EmployeeForm form = EmployeeForm.bind(new FormBinder(request));
+            EmployeeView ev = form.toView();
 
             //アプリケーションスコープからpepper文字列を取得
             String pepper = getContextScope(PropertyConst.PEPPER);
 
-            //従業員情報登録
-            List<String> errors = service.create(ev, pepper);
+            //従業員情報登録(入力値を変換できなかった場合は登録しない)
+            List<String> errors = form.hasErrors() ? form.getErrors() : service.create(ev, pepper);
 
             if (errors.size() > 0) {
                 //登録中にエラーがあった場合
@@ -176,6 +175,9 @@ public class EmployeeAction extends ActionBase {
         //管理者かどうかのチェック //追記
         if (checkAdmin()) { //追記
 
+            //編集画面に表示するバージョンは更新時の競合検出に使用するため、プライマリから取得する
+            service.setReadFromPrimary(true);
+
             //idを条件に従業員データを取得する
             EmployeeView ev = service.findOne(toNumber(getRequestParam(AttributeConst.EMP_ID)));
 
@@ -204,22 +206,21 @@ public class EmployeeAction extends ActionBase {
 
         //CSRF対策 tokenのチェック
         if (checkAdmin() && checkToken()) { //追記
-            //パラメータの値を元に従業員情報のインスタンスを作成する
-            EmployeeView ev = new EmployeeView(
-                    toNumber(getRequestParam(AttributeConst.EMP_ID)),
-                    getRequestParam(AttributeConst.EMP_CODE),
-                    getRequestParam(AttributeConst.EMP_NAME),
-                    getRequestParam(AttributeConst.EMP_PASS),
-                    toNumber(getRequestParam(AttributeConst.EMP_ADMIN_FLG)),
-                    null,
-                    null,
-                    AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+            //パラメータの値を元に従業員情報のインスタンスを作成する(バージョンは編集画面を表示した時点の値)
+            EmployeeForm form = EmployeeForm.bind(new FormBinder(request));
+            EmployeeView ev = form.toView();
+
+            if (ev.getId() == null) {
+                //更新対象の従業員が指定されていない場合はエラー画面を表示
+                forward(ForwardConst.FW_ERR_UNKNOWN);
+                return;
+            }
 
             //アプリケーションスコープからpepper文字列を取得
             String pepper = getContextScope(PropertyConst.PEPPER);
 
-            //従業員情報更新
-            List<String> errors = service.update(ev, pepper);
+            //従業員情報更新(入力値を変換できなかった場合は更新しない)
+            List<String> errors = form.hasErrors() ? form.getErrors() : service.update(ev, pepper);
 
             if (errors.size() > 0) {
                 //更新中にエラーが発生した場合
@@ -2,16 +2,17 @@ package actions;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 
 import javax.servlet.ServletException;
 
+import actions.forms.FormBinder;
+import actions.forms.ReportForm;
 import actions.views.EmployeeView;
+import actions.views.ReportSummaryView;
 import actions.views.ReportView;
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;
 import constants.MessageConst;
 import services.ReportService;
 
@@ -29,7 +30,7 @@ public class ReportAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
 
-        service = new ReportService();
+        service = openService(new ReportService());
 
         //メソッドを実行
         invoke();
@@ -44,16 +45,21 @@ public class ReportAction extends ActionBase {
     public void index() throws ServletException, IOException {
 
         //指定されたページ数の一覧画面に表示する日報データを取得
+        //(次ページへのリンクから遷移した場合は、カーソルより後ろのデータを取得する)
         int page = getPage();
-        List<ReportView> reports = service.getAllPerPage(page);
+        int perPage = getPerPage();
+        Integer cursor = getCursor();
+        List<ReportSummaryView> reports = cursor != null
+                ? service.getAllAfter(cursor, perPage)
+                : service.getAllPerPage(page, perPage);
 
         //全日報データの件数を取得
         long reportsCount = service.countAll();
 
         putRequestScope(AttributeConst.REPORTS, reports); //取得した日報データ
         putRequestScope(AttributeConst.REP_COUNT, reportsCount); //全ての日報データの件数
-        putRequestScope(AttributeConst.PAGE, page); //ページ数
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        putPagination(reportsCount, page, perPage,
+                reports.isEmpty() ? null : reports.get(reports.size() - 1).getId()); //ページ送り
 
         //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
         String flush = getSessionScope(AttributeConst.FLUSH);
@@ -95,58 +101,24 @@ public class ReportAction extends ActionBase {
         //CSRF対策 tokenのチェック
         if (checkToken()) {
 
-            //日報の日付が入力されていなければ、今日の日付を設定
-            LocalDate day = null;
-            if (getRequestParam(AttributeConst.REP_DATE) == null
-                    || getRequestParam(AttributeConst.REP_DATE).equals("")) {
-                day = LocalDate.now();
-            } else {
-                day = LocalDate.parse(getRequestParam(AttributeConst.REP_DATE));
-            }
-
-            //出勤時刻が入力されていなければ、エラーを表示
-            LocalDateTime clock_in = null;
-            if (getRequestParam(AttributeConst.REP_CLOCK_IN) == null
-                    || getRequestParam(AttributeConst.REP_CLOCK_IN).equals("")) {
-                clock_in = null;
-            } else {
-                clock_in = LocalDateTime.parse(getRequestParam(AttributeConst.REP_CLOCK_IN));
-            }
-
-            //退勤時刻が入力されていなければ、エラーを表示
-            LocalDateTime clock_out = null;
-            if (getRequestParam(AttributeConst.REP_CLOCK_OUT) == null
-                    || getRequestParam(AttributeConst.REP_CLOCK_OUT).equals("")) {
-                clock_out = null;
-            } else {
-                clock_out = LocalDateTime.parse(getRequestParam(AttributeConst.REP_CLOCK_OUT));
-            }
+            //リクエストパラメータを型付きのフォームに変換する(日付が入力されていなければ、今日の日付を設定)
+            ReportForm form = ReportForm.bind(new FormBinder(request));
 
             //セッションからログイン中の従業員情報を取得
             EmployeeView ev = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
 
-            LocalDate report_date = (toLocalDate(getRequestParam(AttributeConst.REP_DATE)));
-            ReportView ra = service.countByAfterDate(report_date);
-            ReportView rb = service.countByBeforeDate(report_date);
-            ReportView id = service.countByreport_Id(report_date);
-//            String employee_id = service.countByreport_Date_and_Id(report_date,employee_id);
-
             //パラメータの値をもとに日報情報のインスタンスを作成する
-            ReportView rv = new ReportView(
-                    null,
-                    ev, //ログインしている従業員を、日報作成者として登録する
-                    day,
-                    getRequestParam(AttributeConst.REP_TITLE),
-                    getRequestParam(AttributeConst.REP_CONTENT),
-                    null,
-                    null,
-                    clock_in,
-                    clock_out);
+            ReportView rv = form.toView(ev); //ログインしている従業員を、日報作成者として登録する
 
+            List<String> errors = form.getErrors();
+            if (!form.hasErrors()) {
+                //ログイン中の従業員の翌日・前日の日報を取得する(登録されていない場合はnull)
+                ReportView ra = service.findByAfterDate(ev, form.getReportDate()).orElse(null);
+                ReportView rb = service.findByBeforeDate(ev, form.getReportDate()).orElse(null);
 
-
-            //日報情報登録
-            List<String> errors = service.create(id,ra,rb,ev,service,rv,clock_in,clock_out);
+                //日報情報登録
+                errors = service.create(ra, rb, ev, service, rv, form.getClock_in(), form.getClock_out());
+            }
 
             if (errors.size() > 0) {
                 //登録中にエラーがあった場合
@@ -200,6 +172,9 @@ public class ReportAction extends ActionBase {
      */
     public void edit() throws ServletException, IOException {
 
+        //編集画面に表示するバージョンは更新時の競合検出に使用するため、プライマリから取得する
+        service.setReadFromPrimary(true);
+
         //idを条件に日報データを取得する
         ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
 
@@ -232,69 +207,34 @@ public class ReportAction extends ActionBase {
         //CSRF対策 tokenのチェック
         if (checkToken()) {
 
-            //出勤時刻が入力されていなければ、エラーを表示
-            LocalDateTime clock_in = null;
-            if (getRequestParam(AttributeConst.REP_CLOCK_IN) == null
-                    || getRequestParam(AttributeConst.REP_CLOCK_IN).equals("")) {
-                clock_in = null;
-            } else {
-                clock_in = LocalDateTime.parse(getRequestParam(AttributeConst.REP_CLOCK_IN));
-            }
-
-            //退勤時刻が入力されていなければ、エラーを表示
-            LocalDateTime clock_out = null;
-            if (getRequestParam(AttributeConst.REP_CLOCK_OUT) == null
-                    || getRequestParam(AttributeConst.REP_CLOCK_OUT).equals("")) {
-                clock_out = null;
-            } else {
-                clock_out = LocalDateTime.parse(getRequestParam(AttributeConst.REP_CLOCK_OUT));
-            }
+            //リクエストパラメータを型付きのフォームに変換する
+            ReportForm form = ReportForm.bind(new FormBinder(request));
 
             //セッションからログイン中の従業員情報を取得
             EmployeeView ev = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
 
-            LocalDate report_date = (toLocalDate(getRequestParam(AttributeConst.REP_DATE)));
-
-            ReportView id = null;
-            if (service.countByreport_Id(report_date) == null
-                    || service.countByreport_Id(report_date) .equals("")) {
-                id = null;
-            } else {
-                id = service.countByreport_Id(report_date);
-            }
+            //idを条件に日報データを取得する
+            ReportView rv = form.getId() == null ? null : service.findOne(form.getId());
 
-            ReportView ra = null;
-            if (service.countByAfterDate(report_date) == null
-                    || service.countByAfterDate(report_date) .equals("")) {
-                 ra = null;
-            } else {
-             ra = service.countByAfterDate(report_date);
+            if (rv == null) {
+                //該当の日報データが存在しない場合はエラー画面を表示
+                forward(ForwardConst.FW_ERR_UNKNOWN);
+                return;
             }
 
-            ReportView rb = null;
-            if (service.countByBeforeDate(report_date) == null
-                || service.countByBeforeDate(report_date).equals("")) {
+            //入力された日報内容を設定する(バージョンは編集画面を表示した時点の値)
+            form.copyTo(rv);
 
-                rb = null;
-            } else {
-                rb = service.countByBeforeDate(report_date);
+            List<String> errors = form.getErrors();
+            if (!form.hasErrors()) {
+                //ログイン中の従業員の翌日・前日の日報を取得する(登録されていない場合はnull)
+                ReportView ra = service.findByAfterDate(ev, form.getReportDate()).orElse(null);
+                ReportView rb = service.findByBeforeDate(ev, form.getReportDate()).orElse(null);
 
+                //日報データを更新する
+                errors = service.update(ra, rb, ev, service, rv, form.getClock_in(), form.getClock_out());
             }
 
-            //idを条件に日報データを取得する
-            ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
-
-            //入力された日報内容を設定する
-            rv.setReportDate(toLocalDate(getRequestParam(AttributeConst.REP_DATE)));
-            rv.setTitle(getRequestParam(AttributeConst.REP_TITLE));
-            rv.setContent(getRequestParam(AttributeConst.REP_CONTENT));
-            rv.setClock_in(clock_in);
-            rv.setClock_out(clock_out);
-
-
-            //日報データを更新する
-            List<String> errors = service.update(id,ra,rb,ev,service,rv,clock_in,clock_out);
-
             if (errors.size() > 0) {
                 //更新中にエラーが発生した場合
 
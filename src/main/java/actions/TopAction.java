@@ -6,10 +6,9 @@ import java.util.List; //追記
 import javax.servlet.ServletException;
 
 import actions.views.EmployeeView; //追記
-import actions.views.ReportView; //追記
+import actions.views.ReportSummaryView; //追記
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;  //追記
 import services.ReportService;  //追記
 
 /**
@@ -26,7 +25,7 @@ public class TopAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
 
-        service = new ReportService(); //追記
+        service = openService(new ReportService()); //追記
 
         //メソッドを実行
         invoke();
@@ -47,15 +46,19 @@ public class TopAction extends ActionBase {
 
         //ログイン中の従業員が作成した日報データを、指定されたページ数の一覧画面に表示する分取得する
         int page = getPage();
-        List<ReportView> reports = service.getMinePerPage(loginEmployee, page);
+        int perPage = getPerPage();
+        Integer cursor = getCursor();
+        List<ReportSummaryView> reports = cursor != null
+                ? service.getMineAfter(loginEmployee, cursor, perPage)
+                : service.getMinePerPage(loginEmployee, page, perPage);
 
         //ログイン中の従業員が作成した日報データの件数を取得
         long myReportsCount = service.countAllMine(loginEmployee);
 
         putRequestScope(AttributeConst.REPORTS, reports); //取得した日報データ
         putRequestScope(AttributeConst.REP_COUNT, myReportsCount); //ログイン中の従業員が作成した日報の数
-        putRequestScope(AttributeConst.PAGE, page); //ページ数
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        putPagination(myReportsCount, page, perPage,
+                reports.isEmpty() ? null : reports.get(reports.size() - 1).getId()); //ページ送り
 
         //↑ここまで追記
 
@@ -0,0 +1,93 @@
+package actions.forms;
+
+import java.util.List;
+
+import actions.views.EmployeeView;
+import constants.AttributeConst;
+import constants.MessageConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 従業員の新規登録・更新画面から送信された入力値を型付きで扱うフォーム
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class EmployeeForm {
+
+    /**
+     * id(新規登録の場合はnull)
+     */
+    private final Integer id;
+
+    /**
+     * 社員番号
+     */
+    private final String code;
+
+    /**
+     * 氏名
+     */
+    private final String name;
+
+    /**
+     * パスワード
+     */
+    private final String password;
+
+    /**
+     * 管理者権限があるかどうか(一般:0、管理者:1)
+     */
+    private final Integer adminFlag;
+
+    /**
+     * 編集画面を表示した時点のバージョン
+     */
+    private final Integer version;
+
+    /**
+     * 入力値を変換した際のエラーのリスト
+     */
+    private final List<String> errors;
+
+    /**
+     * リクエストパラメータを読み取り、フォームのインスタンスを作成する
+     * @param binder FormBinderのインスタンス
+     * @return フォームのインスタンス
+     */
+    public static EmployeeForm bind(FormBinder binder) {
+        return new EmployeeForm(
+                binder.number(AttributeConst.EMP_ID, null),
+                binder.text(AttributeConst.EMP_CODE),
+                binder.text(AttributeConst.EMP_NAME),
+                binder.text(AttributeConst.EMP_PASS),
+                binder.number(AttributeConst.EMP_ADMIN_FLG, MessageConst.E_INVALID_ADMIN_FLAG),
+                binder.number(AttributeConst.EMP_VERSION, null),
+                binder.getErrors());
+    }
+
+    /**
+     * 入力値の変換時にエラーが発生したかどうか
+     * @return エラーがある場合true
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * 入力値をもとに従業員のインスタンスを作成する
+     * @return 従業員のインスタンス
+     */
+    public EmployeeView toView() {
+        return new EmployeeView(
+                id,
+                code,
+                name,
+                password,
+                adminFlag,
+                null,
+                null,
+                AttributeConst.DEL_FLAG_FALSE.getIntegerValue(),
+                version);
+    }
+}
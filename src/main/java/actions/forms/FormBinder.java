@@ -0,0 +1,121 @@
+package actions.forms;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import javax.servlet.http.HttpServletRequest;
+
+import actions.ActionBase;
+import constants.AttributeConst;
+import constants.MessageConst;
+import utils.DateTimeUtil;
+
+/**
+ * リクエストパラメータを型付きの値に変換するクラス
+ *
+ * 各パラメータはリクエストから1回だけ取得する
+ * 変換できない値は例外(DateTimeParseException等)を発生させず、エラーメッセージとして収集する
+ * (収集したエラーはフォームの入力エラーとして画面に表示する)
+ */
+public class FormBinder {
+
+    private final HttpServletRequest request;
+
+    /**
+     * 変換時に発生したエラーのリスト
+     */
+    private final List<String> errors = new ArrayList<String>();
+
+    public FormBinder(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * パラメータの値を文字列のまま取得する
+     * @param key パラメータ名
+     * @return パラメータの値(パラメータがない場合はnull)
+     */
+    public String text(AttributeConst key) {
+        return request.getParameter(key.getValue());
+    }
+
+    /**
+     * パラメータの値を数値に変換する
+     * @param key パラメータ名
+     * @param error 変換できない場合に収集するエラー(nullの場合は収集しない)
+     * @return 変換後数値(未入力・変換できない場合はnull)
+     */
+    public Integer number(AttributeConst key, MessageConst error) {
+        String value = text(key);
+        if (isEmpty(value)) {
+            return null;
+        }
+
+        OptionalInt number = ActionBase.parseNumber(value);
+        if (!number.isPresent()) {
+            addError(error);
+            return null;
+        }
+        return number.getAsInt();
+    }
+
+    /**
+     * パラメータの値(yyyy-MM-dd)を日付に変換する
+     * @param key パラメータ名
+     * @param defaultValue 未入力の場合の値
+     * @param error 変換できない場合に収集するエラー
+     * @return 変換後日付(変換できない場合はnull)
+     */
+    public LocalDate date(AttributeConst key, LocalDate defaultValue, MessageConst error) {
+        String value = text(key);
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+
+        LocalDate date = DateTimeUtil.parseInputDate(value);
+        if (date == null) {
+            addError(error);
+        }
+        return date;
+    }
+
+    /**
+     * パラメータの値(yyyy-MM-ddTHH:mm)を日時に変換する
+     * @param key パラメータ名
+     * @param error 変換できない場合に収集するエラー
+     * @return 変換後日時(未入力・変換できない場合はnull)
+     */
+    public LocalDateTime dateTime(AttributeConst key, MessageConst error) {
+        String value = text(key);
+        if (isEmpty(value)) {
+            return null;
+        }
+
+        LocalDateTime dateTime = DateTimeUtil.parseInputDateTime(value);
+        if (dateTime == null) {
+            addError(error);
+        }
+        return dateTime;
+    }
+
+    /**
+     * 変換時に発生したエラーのリストを取得する
+     * @return エラーのリスト(エラーがない場合は空のリスト)
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    private void addError(MessageConst error) {
+        if (error != null) {
+            errors.add(error.getMessage());
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.equals("");
+    }
+}
@@ -0,0 +1,118 @@
+package actions.forms;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import constants.AttributeConst;
+import constants.MessageConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 日報の新規登録・更新画面から送信された入力値を型付きで扱うフォーム
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public class ReportForm {
+
+    /**
+     * id(新規登録の場合はnull)
+     */
+    private final Integer id;
+
+    /**
+     * いつの日報かを示す日付(未入力の場合は今日の日付)
+     */
+    private final LocalDate reportDate;
+
+    /**
+     * 日報のタイトル
+     */
+    private final String title;
+
+    /**
+     * 日報の内容
+     */
+    private final String content;
+
+    /**
+     * 出勤日時
+     */
+    private final LocalDateTime clock_in;
+
+    /**
+     * 退勤日時
+     */
+    private final LocalDateTime clock_out;
+
+    /**
+     * 編集画面を表示した時点のバージョン
+     */
+    private final Integer version;
+
+    /**
+     * 入力値を変換した際のエラーのリスト
+     */
+    private final List<String> errors;
+
+    /**
+     * リクエストパラメータを読み取り、フォームのインスタンスを作成する
+     * @param binder FormBinderのインスタンス
+     * @return フォームのインスタンス
+     */
+    public static ReportForm bind(FormBinder binder) {
+        return new ReportForm(
+                binder.number(AttributeConst.REP_ID, null),
+                binder.date(AttributeConst.REP_DATE, LocalDate.now(), MessageConst.E_INVALID_REP_DATE),
+                binder.text(AttributeConst.REP_TITLE),
+                binder.text(AttributeConst.REP_CONTENT),
+                binder.dateTime(AttributeConst.REP_CLOCK_IN, MessageConst.E_CLOCK_IN_EXIST),
+                binder.dateTime(AttributeConst.REP_CLOCK_OUT, MessageConst.E_CLOCK_OUT_EXIST),
+                binder.number(AttributeConst.REP_VERSION, null),
+                binder.getErrors());
+    }
+
+    /**
+     * 入力値の変換時にエラーが発生したかどうか
+     * @return エラーがある場合true
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * 入力値をもとに新規登録する日報のインスタンスを作成する
+     * @param ev 日報を作成する従業員
+     * @return 日報のインスタンス
+     */
+    public ReportView toView(EmployeeView ev) {
+        return new ReportView(
+                null,
+                ev,
+                reportDate,
+                title,
+                content,
+                null,
+                null,
+                clock_in,
+                clock_out,
+                null,
+                null);
+    }
+
+    /**
+     * 入力値を更新対象の日報のインスタンスに設定する
+     * @param rv 日報のインスタンス
+     */
+    public void copyTo(ReportView rv) {
+        rv.setReportDate(reportDate);
+        rv.setTitle(title);
+        rv.setContent(content);
+        rv.setClock_in(clock_in);
+        rv.setClock_out(clock_out);
+        rv.setVersion(version);
+    }
+}
@@ -0,0 +1,52 @@
+package actions.views;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.Hibernate;
+
+import models.Employee;
+
+/**
+ * DTOモデル→Viewモデルの一括変換で使用する変換コンテキスト
+ *
+ * 変換済みの従業員をidで保持し、同じ従業員には同じEmployeeSummaryViewのインスタンスを返却する
+ * (例: 1人の従業員の日報15件を変換しても、作成者のViewモデルは1つのみ生成する)
+ * 1回の変換、または1リクエストの中でのみ使用し、複数のリクエストで共有しないこと
+ */
+public class ConversionContext {
+
+    /**
+     * 変換済みの従業員(キー: 従業員のid)
+     */
+    private final Map<Integer, EmployeeSummaryView> employees = new HashMap<>();
+
+    /**
+     * 従業員のDTOモデルから、作成者として表示する従業員情報を取得する
+     * @param e Employeeのインスタンス
+     * @return EmployeeSummaryViewのインスタンス(同じidの従業員には同じインスタンスを返却する)
+     */
+    public EmployeeSummaryView toEmployeeSummary(Employee e) {
+        if (e == null) {
+            return null;
+        }
+        if (!Hibernate.isInitialized(e) || e.getId() == null) {
+            //取得していない従業員(idのみ)・未登録の従業員は共有しない
+            return EmployeeConverter.toSummary(e);
+        }
+
+        EmployeeSummaryView summary = employees.get(e.getId());
+        if (summary == null) {
+            summary = EmployeeConverter.toSummary(e);
+            employees.put(e.getId(), summary);
+        }
+        return summary;
+    }
+
+    /**
+     * @return 変換済みの従業員の数
+     */
+    public int employeeCount() {
+        return employees.size();
+    }
+}
@@ -1,8 +1,12 @@
 package actions.views;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+
 import constants.AttributeConst;
 import constants.JpaConst;
 import models.Employee;
@@ -36,7 +40,8 @@ public class EmployeeConverter {
                         ? null
                         : ev.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()
                                 ? JpaConst.EMP_DEL_TRUE
-                                : JpaConst.EMP_DEL_FALSE);
+                                : JpaConst.EMP_DEL_FALSE,
+                ev.getVersion());
     }
 
     /**
@@ -49,6 +54,12 @@ public class EmployeeConverter {
         if(e == null) {
             return null;
         }
+        if (!Hibernate.isInitialized(e)) {
+            //取得していない従業員はidのみを設定する
+            EmployeeView ev = new EmployeeView();
+            ev.setId(getProxyId(e));
+            return ev;
+        }
 
         return new EmployeeView(
                 e.getId(),
@@ -62,6 +73,38 @@ public class EmployeeConverter {
                                 : AttributeConst.ROLE_GENERAL.getIntegerValue(),
                 e.getCreatedAt(),
                 e.getUpdatedAt(),
+                e.getDeleteFlag() == null
+                        ? null
+                        : e.getDeleteFlag() == JpaConst.EMP_DEL_TRUE
+                                ? AttributeConst.DEL_FLAG_TRUE.getIntegerValue()
+                                : AttributeConst.DEL_FLAG_FALSE.getIntegerValue(),
+                e.getVersion());
+    }
+
+    /**
+     * DTOモデルのインスタンスから、日報の作成者として表示する従業員情報(変更不可)を作成する
+     * 通常はConversionContext経由で呼び出し、同じ従業員のインスタンスを共有する
+     * @param e Employeeのインスタンス
+     * @return EmployeeSummaryViewのインスタンス
+     */
+    public static EmployeeSummaryView toSummary(Employee e) {
+
+        if (e == null) {
+            return null;
+        }
+        if (!Hibernate.isInitialized(e)) {
+            return new EmployeeSummaryView(getProxyId(e), null, null, null, null);
+        }
+
+        return new EmployeeSummaryView(
+                e.getId(),
+                e.getCode(),
+                e.getName(),
+                e.getAdminFlag() == null
+                        ? null
+                        : e.getAdminFlag() == JpaConst.ROLE_ADMIN
+                                ? AttributeConst.ROLE_ADMIN.getIntegerValue()
+                                : AttributeConst.ROLE_GENERAL.getIntegerValue(),
                 e.getDeleteFlag() == null
                         ? null
                         : e.getDeleteFlag() == JpaConst.EMP_DEL_TRUE
@@ -69,13 +112,23 @@ public class EmployeeConverter {
                                 : AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
     }
 
+    /**
+     * 取得していない(遅延読み込みの)従業員のidを取得する
+     * DBへの問い合わせは行わないため、EntityManagerのクローズ後も使用できる
+     * @param e Employeeのインスタンス(Hibernateのプロキシ)
+     * @return id
+     */
+    private static Integer getProxyId(Employee e) {
+        return (Integer) ((HibernateProxy) e).getHibernateLazyInitializer().getIdentifier();
+    }
+
     /**
      * DTOモデルのリストからViewモデルのリストを作成する
      * @param list DTOモデルのリスト
      * @return Viewモデルのリスト
      */
     public static List<EmployeeView> toViewList(List<Employee> list) {
-        List<EmployeeView> evs = new ArrayList<>();
+        List<EmployeeView> evs = new ArrayList<>(list.size());
 
         for (Employee e : list) {
             evs.add(toView(e));
@@ -84,6 +137,22 @@ public class EmployeeConverter {
         return evs;
     }
 
+    /**
+     * DTOモデルのリストから一覧画面に表示する従業員情報(変更不可)のリストを作成する
+     * 返却するリストも変更不可とする(他のリクエストと共有できる)
+     * @param list DTOモデルのリスト
+     * @return 一覧画面に表示する従業員情報の変更不可のリスト
+     */
+    public static List<EmployeeSummaryView> toSummaryList(List<Employee> list) {
+        List<EmployeeSummaryView> esvs = new ArrayList<>(list.size());
+
+        for (Employee e : list) {
+            esvs.add(toSummary(e));
+        }
+
+        return Collections.unmodifiableList(esvs);
+    }
+
     /**
      * Viewモデルの全フィールドの内容をDTOモデルのフィールドにコピーする
      * @param e DTOモデル(コピー先)
@@ -98,6 +167,7 @@ public class EmployeeConverter {
         e.setCreatedAt(ev.getCreatedAt());
         e.setUpdatedAt(ev.getUpdatedAt());
         e.setDeleteFlag(ev.getDeleteFlag());
+        //バージョンはJPAが管理するため、コピーしない
 
     }
 
@@ -0,0 +1,41 @@
+package actions.views;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一覧画面等で日報の作成者・従業員一覧として表示する従業員情報のViewモデル(変更不可)
+ *
+ * 1回の変換(ConversionContext)の中で同じ従業員のインスタンスを共有するため、全てのフィールドをfinalとし、setterを持たない。
+ * 日報のViewモデル(ReportView)は作成者としてこのインスタンスを保持する(EmployeeViewとしては扱わない)。
+ * パスワード・登録日時・更新日時・バージョンは保持しない。
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public final class EmployeeSummaryView {
+
+    /**
+     * id
+     */
+    private final Integer id;
+
+    /**
+     * 社員番号
+     */
+    private final String code;
+
+    /**
+     * 氏名
+     */
+    private final String name;
+
+    /**
+     * 管理者権限があるかどうか（一般：0、管理者：1）
+     */
+    private final Integer adminFlag;
+
+    /**
+     * 削除された従業員かどうか（現役：0、削除済み：1）
+     */
+    private final Integer deleteFlag;
+}
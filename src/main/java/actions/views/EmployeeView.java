@@ -57,4 +57,9 @@ public class EmployeeView {
      */
     private Integer deleteFlag;
 
+    /**
+     * バージョン(編集画面を表示した時点の値 更新時の競合検出に使用する)
+     */
+    private Integer version;
+
 }
@@ -0,0 +1,132 @@
+package actions.views;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import constants.JpaConst;
+import lombok.Getter;
+
+/**
+ * 一覧画面のページ送りの表示内容を扱うViewモデル
+ *
+ * 全ページ分のリンクは出力せず、先頭ページ・最終ページと、表示中のページの前後WINDOWページ分のみを出力する
+ * (例: 全100ページで50ページ目を表示中の場合 1 … 47 48 49 50 51 52 53 … 100)
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+public class Pagination {
+
+    /**
+     * 表示中のページの前後に出力するページ数
+     */
+    public static final int WINDOW = 3;
+
+    /**
+     * 画面から選択できる1ページの表示件数
+     */
+    public static final List<Integer> SIZE_OPTIONS = Collections.unmodifiableList(
+            Arrays.asList(JpaConst.ROW_PER_PAGE, 50, JpaConst.ROW_PER_PAGE_MAX));
+
+    /**
+     * 全件数
+     */
+    private final long count;
+
+    /**
+     * 表示中のページ数
+     */
+    private final int page;
+
+    /**
+     * 1ページに表示するレコードの数
+     */
+    private final int perPage;
+
+    /**
+     * 最終ページのページ数
+     */
+    private final int lastPage;
+
+    /**
+     * リンクを出力するページ数のリスト(表示中のページの前後WINDOWページ分)
+     */
+    private final List<Integer> pages;
+
+    /**
+     * 次ページのカーソル(表示中のページの最後のレコードのid 次ページがない場合はnull)
+     * 次ページへのリンクに付与し、OFFSETを使わずに次ページのデータを取得する
+     */
+    private final Integer nextCursor;
+
+    /**
+     * @param count 全件数
+     * @param page 表示中のページ数
+     * @param perPage 1ページに表示するレコードの数
+     * @param lastId 表示中のページの最後のレコードのid(カーソルによるページ送りに対応しない場合はnull)
+     */
+    public Pagination(long count, int page, int perPage, Integer lastId) {
+        this.count = count;
+        this.page = page;
+        this.perPage = perPage;
+        this.lastPage = (int) Math.max(1, (count + perPage - 1) / perPage);
+
+        //最終ページより後ろのページを指定された場合は、最終ページの前後を出力する
+        int center = Math.max(1, Math.min(page, lastPage));
+        List<Integer> window = new ArrayList<Integer>();
+        int start = Math.max(1, center - WINDOW);
+        int end = Math.min(lastPage, center + WINDOW);
+        for (int i = start; i <= end; i++) {
+            window.add(i);
+        }
+        this.pages = window;
+
+        this.nextCursor = page < lastPage ? lastId : null;
+    }
+
+    /**
+     * @return 前ページのページ数(最終ページより後ろのページを指定された場合は最終ページ)
+     */
+    public int getPrevPage() {
+        return Math.min(page - 1, lastPage);
+    }
+
+    /**
+     * @return true: 先頭ページへのリンクをページの一覧とは別に出力する
+     */
+    public boolean isShowFirst() {
+        return pages.get(0) > 1;
+    }
+
+    /**
+     * @return true: 先頭ページとページの一覧の間が離れている(省略記号を出力する)
+     */
+    public boolean isFirstGap() {
+        return pages.get(0) > 2;
+    }
+
+    /**
+     * @return true: 最終ページへのリンクをページの一覧とは別に出力する
+     */
+    public boolean isShowLast() {
+        return pages.get(pages.size() - 1) < lastPage;
+    }
+
+    /**
+     * @return true: ページの一覧と最終ページの間が離れている(省略記号を出力する)
+     */
+    public boolean isLastGap() {
+        return pages.get(pages.size() - 1) < lastPage - 1;
+    }
+
+    /**
+     * @return true: 1ページの表示件数が既定値(JpaConst.ROW_PER_PAGE)ではない(リンクに表示件数を付与する)
+     */
+    public boolean isCustomSize() {
+        return perPage != JpaConst.ROW_PER_PAGE;
+    }
+
+    public List<Integer> getSizeOptions() {
+        return SIZE_OPTIONS;
+    }
+}
@@ -1,7 +1,9 @@
 package actions.views;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import models.Report;
 
@@ -26,7 +28,8 @@ public class ReportConverter {
                 rv.getCreatedAt(),
                 rv.getUpdatedAt(),
                 rv.getClock_in(),
-                rv.getClock_out());
+                rv.getClock_out(),
+                rv.getVersion());
 
 
 
@@ -52,25 +55,92 @@ public class ReportConverter {
                 r.getCreatedAt(),
                 r.getUpdatedAt(),
                 r.getClock_in(),
-                r.getClock_out());
+                r.getClock_out(),
+                r.getVersion(),
+                EmployeeConverter.toSummary(r.getEmployee()));
 
     }
 
+    /**
+     * DTOモデルのインスタンスからViewモデルのインスタンスを作成する
+     * 日報の作成者は変換コンテキストで共有する従業員情報(EmployeeSummaryView)とし、従業員(EmployeeView)は設定しない
+     * @param r Reportのインスタンス
+     * @param context 変換コンテキスト
+     * @return ReportViewのインスタンス
+     */
+    public static ReportView toView(Report r, ConversionContext context) {
+
+        if (r == null) {
+            return null;
+        }
+
+        return new ReportView(
+                r.getId(),
+                null,
+                r.getReportDate(),
+                r.getTitle(),
+                r.getContent(),
+                r.getCreatedAt(),
+                r.getUpdatedAt(),
+                r.getClock_in(),
+                r.getClock_out(),
+                r.getVersion(),
+                context.toEmployeeSummary(r.getEmployee()));
+    }
+
     /**
      * DTOモデルのリストからViewモデルのリストを作成する
+     * 同じ従業員の日報の作成者は、1つのEmployeeSummaryViewのインスタンスを共有する
      * @param list DTOモデルのリスト
      * @return Viewモデルのリスト
      */
     public static List<ReportView> toViewList(List<Report> list) {
-        List<ReportView> evs = new ArrayList<>();
+        return toViewList(list, new ConversionContext());
+    }
+
+    /**
+     * DTOモデルのリストからViewモデルのリストを作成する
+     * 複数回の変換で作成者のインスタンスを共有する場合は、同じ変換コンテキストを指定する
+     * @param list DTOモデルのリスト
+     * @param context 変換コンテキスト
+     * @return Viewモデルのリスト
+     */
+    public static List<ReportView> toViewList(List<Report> list, ConversionContext context) {
+        List<ReportView> evs = new ArrayList<>(list.size());
 
         for (Report r : list) {
-            evs.add(toView(r));
+            evs.add(toView(r, context));
         }
 
         return evs;
     }
 
+    /**
+     * DTOモデルのリストから一覧画面に表示するViewモデル(変更不可)のリストを作成する
+     * 同じ従業員の日報の作成者は、1つのEmployeeSummaryViewのインスタンスを共有する
+     * 返却するリストも変更不可とする(他のリクエストと共有できる)
+     * @param list DTOモデルのリスト
+     * @return 一覧画面に表示するViewモデルの変更不可のリスト
+     */
+    public static List<ReportSummaryView> toSummaryList(List<Report> list) {
+        ConversionContext context = new ConversionContext();
+        List<ReportSummaryView> rsvs = new ArrayList<>(list.size());
+
+        for (Report r : list) {
+            rsvs.add(new ReportSummaryView(
+                    r.getId(),
+                    r.getReportDate(),
+                    r.getTitle(),
+                    r.getCreatedAt(),
+                    r.getUpdatedAt(),
+                    r.getClock_in(),
+                    r.getClock_out(),
+                    context.toEmployeeSummary(r.getEmployee())));
+        }
+
+        return Collections.unmodifiableList(rsvs);
+    }
+
     /**
      * Viewモデルの全フィールドの内容をDTOモデルのフィールドにコピーする
      * @param r DTOモデル(コピー先)
@@ -86,6 +156,46 @@ public class ReportConverter {
         r.setUpdatedAt(rv.getUpdatedAt());
         r.setClock_in(rv.getClock_in());
         r.setClock_out(rv.getClock_out());
+        //バージョンはJPAが管理するため、コピーしない
+    }
+
+    /**
+     * Viewモデルの内容のうち、DTOモデルと値が異なるフィールドのみをDTOモデルにコピーする
+     * 日報を作成した従業員はコピーしない(変更する場合はidの参照を設定すること)
+     * バージョンはJPAが管理するため、コピーしない
+     * @param r DTOモデル(コピー先 EntityManagerで管理されているインスタンス)
+     * @param rv Viewモデル(コピー元)
+     * @return true: 値が異なるフィールドがあった
+     */
+    public static boolean copyChangedViewToModel(Report r, ReportView rv) {
+        boolean changed = false;
+
+        if (!Objects.equals(r.getReportDate(), rv.getReportDate())) {
+            r.setReportDate(rv.getReportDate());
+            changed = true;
+        }
+        if (!Objects.equals(r.getTitle(), rv.getTitle())) {
+            r.setTitle(rv.getTitle());
+            changed = true;
+        }
+        if (!Objects.equals(r.getContent(), rv.getContent())) {
+            r.setContent(rv.getContent());
+            changed = true;
+        }
+        if (!Objects.equals(r.getClock_in(), rv.getClock_in())) {
+            r.setClock_in(rv.getClock_in());
+            changed = true;
+        }
+        if (!Objects.equals(r.getClock_out(), rv.getClock_out())) {
+            r.setClock_out(rv.getClock_out());
+            changed = true;
+        }
+        if (!Objects.equals(r.getCreatedAt(), rv.getCreatedAt())) {
+            r.setCreatedAt(rv.getCreatedAt());
+            changed = true;
+        }
+
+        return changed;
     }
 
 }
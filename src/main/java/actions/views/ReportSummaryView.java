@@ -0,0 +1,58 @@
+package actions.views;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一覧画面に表示する日報情報のViewモデル(変更不可)
+ *
+ * 一覧の参照結果は同時に実行された他のリクエストと共有する(ServiceBase#coalesce)ため、全てのフィールドをfinalとし、setterを持たない。
+ * 日報を登録した従業員(EmployeeView)・内容・バージョンは保持せず、作成者は変更不可の従業員情報として保持する。
+ */
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+public final class ReportSummaryView {
+
+    /**
+     * id
+     */
+    private final Integer id;
+
+    /**
+     * いつの日報かを示す日付
+     */
+    private final LocalDate reportDate;
+
+    /**
+     * 日報のタイトル
+     */
+    private final String title;
+
+    /**
+     * 登録日時
+     */
+    private final LocalDateTime createdAt;
+
+    /**
+     * 更新日時
+     */
+    private final LocalDateTime updatedAt;
+
+    /**
+     * 出勤時間
+     */
+    private final LocalDateTime clock_in;
+
+    /**
+     * 退勤時間
+     */
+    private final LocalDateTime clock_out;
+
+    /**
+     * 日報の作成者として表示する従業員情報(同じ従業員の日報でインスタンスを共有する)
+     */
+    private final EmployeeSummaryView author;
+}
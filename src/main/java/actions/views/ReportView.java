@@ -24,7 +24,7 @@ public class ReportView {
     private Integer id;
 
     /**
-     * 日報を登録した従業員
+     * 日報を登録した従業員(登録・更新・詳細画面で使用する 一覧の変換では設定しない)
      */
     private EmployeeView employee;
 
@@ -64,5 +64,15 @@ public class ReportView {
      */
     private LocalDateTime clock_out;
 
+    /**
+     * バージョン(編集画面を表示した時点の値 更新時の競合検出に使用する)
+     */
+    private Integer version;
+
+    /**
+     * 日報の作成者として表示する従業員情報(変更不可 一覧の変換では同じ従業員の日報でインスタンスを共有する)
+     */
+    private EmployeeSummaryView author;
+
 
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package constants;
+
+/**
+ * 受付制御(処理の種類毎の同時実行数の上限)に関する項目値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface AdmissionConst {
+
+    //受付制御を行うかどうかを指定するシステムプロパティ名(false を指定した場合は行わない)
+    String ADMISSION_ENABLED_KEY = "drs.admission.enabled";
+    //処理の種類毎に同時実行数の上限を指定するシステムプロパティ名(例: Employee.index:4,Report.index:8)
+    String ADMISSION_LIMITS_KEY = "drs.admission.limits";
+
+    //同時実行数の上限の既定値(処理の種類毎に、観測した応答時間に応じてこの範囲で増減させる)
+    int LIMIT_MIN = 1;
+    int LIMIT_INITIAL = 20;
+    int LIMIT_MAX_DEFAULT = 100;
+    //同時実行数の上限の既定値を小さくする重い処理(従業員一覧は管理者による深いページ送りがある)
+    String LIMITS_DEFAULT = "Employee.index:4";
+
+    //上限に達した場合に待機できるリクエストの数と待機時間(ミリ秒)
+    int QUEUE_SIZE = 10;
+    int QUEUE_TIMEOUT = 100;
+
+    //過負荷の場合に返却する再試行までの秒数(Retry-Afterヘッダ)
+    int RETRY_AFTER_SECONDS = 1;
+
+    //ForwardConstに定義されていないaction・commandの組み合わせをまとめる処理の種類の名前
+    String ROUTE_OTHER = "other";
+}
@@ -12,6 +12,9 @@ public enum AttributeConst {
     //一覧画面共通
     MAX_ROW("maxRow"),
     PAGE("page"),
+    PER_PAGE("size"),
+    CURSOR("cursor"),
+    PAGINATION("pagination"),
 
     //入力フォーム共通
     TOKEN("_token"),
@@ -20,6 +23,9 @@ public enum AttributeConst {
     //ログイン中の従業員
     LOGIN_EMP("login_employee"),
 
+    //同じセッションで最後に登録・更新を行った時刻(参照処理の接続先の切り替えに使用する)
+    LAST_WRITE_AT("last_write_at"),
+
     //ログイン画面
     LOGIN_ERR("loginError"),
 
@@ -32,6 +38,7 @@ public enum AttributeConst {
     EMP_PASS("password"),
     EMP_NAME("name"),
     EMP_ADMIN_FLG("admin_flag"),
+    EMP_VERSION("version"),
 
     //管理者フラグ
     ROLE_ADMIN(1),
@@ -53,6 +60,7 @@ public enum AttributeConst {
     REP_END_DATE("end_date"),
     REP_CLOCK_IN("clock_in"),
     REP_CLOCK_OUT("clock_out"),
+    REP_VERSION("version"),
 //追加    
     REP_EMP("employee_id");
 
@@ -0,0 +1,44 @@
+package constants;
+
+/**
+ * リクエスト処理用のスレッドプール(非同期処理)に関する項目値を定義するインターフェース
+ * ※インターフェイスに定義した変数は public static final 修飾子がついているとみなされる
+ */
+public interface ExecutorConst {
+
+    //非同期処理を行うかどうかを指定するシステムプロパティ名(false を指定した場合はコンテナのスレッドで処理する)
+    String ASYNC_ENABLED_KEY = "drs.async.enabled";
+    //スレッド数を指定するシステムプロパティ名と既定値
+    String ASYNC_THREADS_KEY = "drs.async.threads";
+    int ASYNC_THREADS_DEFAULT = 20;
+    //待ち行列の長さを指定するシステムプロパティ名と既定値(待ち行列が一杯の場合は503を返却する)
+    String ASYNC_QUEUE_KEY = "drs.async.queue";
+    int ASYNC_QUEUE_DEFAULT = 100;
+    //待ち行列で待機できる時間(ミリ秒)を指定するシステムプロパティ名と既定値(超過した場合は503を返却する)
+    String ASYNC_QUEUE_TIMEOUT_KEY = "drs.async.queue.timeout";
+    int ASYNC_QUEUE_TIMEOUT_DEFAULT = 5000;
+    //非同期処理の開始から応答までの時間の上限(ミリ秒)を指定するシステムプロパティ名と既定値
+    //(超過した場合は処理の開始前であれば503、処理中であれば504を返却する 0を指定した場合は上限を設けない)
+    String ASYNC_TIMEOUT_KEY = "drs.async.timeout";
+    int ASYNC_TIMEOUT_DEFAULT = 30000;
+    //スレッドの種類を指定するシステムプロパティ名と値
+    String ASYNC_THREAD_MODE_KEY = "drs.async.thread-mode";
+    String THREAD_MODE_PLATFORM = "platform"; //スレッドプール(既定)
+    String THREAD_MODE_VIRTUAL = "virtual"; //リクエスト毎に仮想スレッドを作成する(JDK 21以降)
+    //仮想スレッドで同時に処理するリクエスト数の上限を指定するシステムプロパティ名と既定値(超過した場合は503を返却する)
+    String ASYNC_VIRTUAL_MAX_KEY = "drs.async.virtual.max";
+    int ASYNC_VIRTUAL_MAX_DEFAULT = 500;
+    //仮想スレッドがキャリアスレッドに固定(pinning)された箇所を出力するJDKのシステムプロパティ名と既定値
+    String TRACE_PINNED_THREADS_KEY = "jdk.tracePinnedThreads";
+    String TRACE_PINNED_THREADS_DEFAULT = "short";
+    //シャットダウン時に処理中のリクエストの完了を待機する時間(秒)
+    int ASYNC_SHUTDOWN_TIMEOUT = 10;
+
+    //非同期で処理するリクエストの状態(ActionExecutor.Task)を格納するリクエストスコープの属性名
+    String TASK_ATTRIBUTE = "drs.async.task";
+
+    //スレッド名の接頭辞
+    String THREAD_NAME_PREFIX = "drs-action-";
+    //計測値を公開するMBeanの名前
+    String MBEAN_NAME = "daily_report_system:type=ActionExecutor";
+}
@@ -8,9 +8,64 @@ public interface JpaConst {
 
     //persistence-unit名
     String PERSISTENCE_UNIT_NAME = "daily_report_system";
+    String PERSISTENCE_UNIT_NAME_EMBEDDED = "daily_report_system_embedded"; //組み込みDB(H2)用
+
+    //DB接続先のプロファイルを指定するシステムプロパティ名と値
+    String DB_PROFILE_KEY = "drs.db.profile";
+    String DB_PROFILE_EMBEDDED = "embedded"; //組み込みDB(H2 インメモリ, MySQL互換モード)
+    //組み込みDB起動時に投入するテストデータの件数を指定するシステムプロパティ名
+    String DB_SEED_EMPLOYEES_KEY = "drs.db.seed.employees"; //従業員数
+    String DB_SEED_REPORTS_KEY = "drs.db.seed.reports"; //日報数
+
+    //読み取り専用の参照処理の接続先(レプリカ) 指定がない場合は全ての処理をプライマリで行う
+    String DB_REPLICA_URL_KEY = "drs.db.replica.url"; //レプリカのURL
+    String DB_REPLICA_USER_KEY = "drs.db.replica.user"; //レプリカのユーザー(指定がない場合はプライマリと同じ)
+    String DB_REPLICA_PASSWORD_KEY = "drs.db.replica.password"; //レプリカのパスワード(指定がない場合はプライマリと同じ)
+    String DB_REPLICA_STICKY_KEY = "drs.db.replica.sticky"; //登録・更新後、同じセッションの参照処理をプライマリで行う時間(ミリ秒)
+    int DB_REPLICA_STICKY_DEFAULT = 5000;
+    String DB_REPLICA_MAX_LAG_KEY = "drs.db.replica.max-lag"; //レプリカの遅延の上限(ミリ秒 超えた場合は参照処理をプライマリで行う 負の値は上限なし)
+    int DB_REPLICA_MAX_LAG_DEFAULT = 1000;
+    int DB_REPLICA_HEARTBEAT_INTERVAL = 500; //レプリカの遅延の計測間隔(ミリ秒)
+    String REPLICA_MBEAN_NAME = "daily_report_system:type=ReplicaRouter"; //計測値を公開するMBeanの名前
+
+    //日報の分割(シャーディング) 日報は作成した従業員のidをDBの数で割った余りの番号のDB(シャード)に格納する
+    //シャード0はプライマリ(javax.persistence.jdbc.url) 従業員は全てのシャードに同じ内容を保持する
+    String DB_SHARDS_KEY = "drs.db.shards"; //DBの数(既定値は1 分割しない)
+    String DB_SHARD_URL_KEY = "drs.db.shard.%d.url"; //シャード1以降のURL
+    String DB_SHARD_USER_KEY = "drs.db.shard.%d.user"; //シャード1以降のユーザー(指定がない場合はプライマリと同じ)
+    String DB_SHARD_PASSWORD_KEY = "drs.db.shard.%d.password"; //シャード1以降のパスワード(指定がない場合はプライマリと同じ)
+    String DB_SHARD_EMBEDDED_URL = "jdbc:h2:mem:daily_report_system_shard%d;MODE=MySQL;DB_CLOSE_DELAY=-1"; //組み込みDBのシャード1以降のURL
+    String DB_SHARD_INDEX_KEY = "drs.db.shard.index"; //シャードの番号(シャード毎のEntityManagerFactoryに設定し、日報idの採番に使用する)
+    int DB_SHARD_REPLICATE_ATTEMPTS = 3; //従業員等をシャードに書き込む際の試行回数(プライマリのコミット後に行うため、失敗してもリクエストは失敗させない)
+    long DB_SHARD_REPLICATE_RETRY_INTERVAL = 100; //シャードへの書き込みを再試行するまでの時間(ミリ秒)
+
+    //日報テーブルの月毎のパーティション(MySQLのみ report_dateの範囲で分割する)
+    String DB_PARTITION_ENABLED_KEY = "drs.db.partition.enabled"; //アプリケーションで翌月以降のパーティションを作成するかどうか(既定値false)
+    String DB_PARTITION_AHEAD_KEY = "drs.db.partition.ahead"; //事前に作成しておく翌月以降のパーティションの数
+    int DB_PARTITION_AHEAD_DEFAULT = 3;
+    int DB_PARTITION_HISTORY_MAX = 60; //パーティションに変換する際に作成する過去の月の最大数(それより古い日報は最初のパーティションに格納する)
+    int DB_PARTITION_INTERVAL_HOURS = 24; //アプリケーションで翌月以降のパーティションを作成する間隔(時間)
+    String DB_PARTITION_LOCK_NAME = "daily_report_system.reports_partition"; //パーティションを変更する間に取得する名前付きロック(GET_LOCK)の名前
+    int DB_PARTITION_LOCK_TIMEOUT = 60; //コマンドで実行する場合に、名前付きロックの取得を待機する時間(秒 アプリケーションでは待機しない)
+
+    //古い日報のアーカイブ(日報テーブルから削除し、ローカルディスク上の圧縮したセグメントファイルに格納する)
+    String DB_ARCHIVE_DIR_KEY = "drs.archive.dir"; //セグメントファイルを格納するディレクトリ(指定しない場合はアーカイブを参照しない)
+    String DB_ARCHIVE_ENABLED_KEY = "drs.archive.enabled"; //アプリケーションで定期的にアーカイブするかどうか(既定値false)
+    String DB_ARCHIVE_AGE_KEY = "drs.archive.age-days"; //アーカイブする日報の古さ(日付が今日から指定した日数より前の日報をアーカイブする)
+    int DB_ARCHIVE_AGE_DEFAULT = 1095;
+    int DB_ARCHIVE_SEGMENT_ROWS = 50000; //1つのセグメントファイルに格納する日報の最大件数
+    int DB_ARCHIVE_BLOCK_ROWS = 64; //圧縮の単位(疎インデックスの間隔)とする日報の件数
+    int DB_ARCHIVE_BATCH_SIZE = 1000; //日報テーブルから1回に取得・削除する日報の件数
+    int DB_ARCHIVE_INTERVAL_HOURS = 24; //アーカイブを行う間隔(時間)
+    String DB_ARCHIVE_LOCK_NAME = "daily_report_system.reports_archive."; //アーカイブする間に取得する名前付きロック(GET_LOCK)の名前(末尾にシャードの番号を付ける)
+    int DB_ARCHIVE_LOCK_TIMEOUT = 60; //コマンドで実行する場合に、名前付きロックの取得を待機する時間(秒 アプリケーションでは待機しない)
+
+    //同時に実行された同じ参照処理の集約(SingleFlight)の計測値を公開するMBeanの名前
+    String SINGLE_FLIGHT_MBEAN_NAME = "daily_report_system:type=SingleFlight";
 
     //データ取得件数の最大値
     int ROW_PER_PAGE = 15; //1ページに表示するレコードの数
+    int ROW_PER_PAGE_MAX = 100; //画面から指定できる1ページに表示するレコードの数の上限
 
     //従業員テーブル
     String TABLE_EMP = "employees"; //テーブル名
@@ -23,12 +78,21 @@ public interface JpaConst {
     String EMP_COL_CREATED_AT = "created_at"; //登録日時
     String EMP_COL_UPDATED_AT = "updated_at"; //更新日時
     String EMP_COL_DELETE_FLAG = "delete_flag"; //削除フラグ
+    String EMP_COL_VERSION = "version"; //バージョン(楽観ロック用)
+    //従業員テーブル一意制約
+    String EMP_UK_CODE = "uk_employees_code"; //社員番号
 
     int ROLE_ADMIN = 1; //管理者権限ON(管理者)
     int ROLE_GENERAL = 0; //管理者権限OFF(一般)
     int EMP_DEL_TRUE = 1; //削除フラグON(削除済み)
     int EMP_DEL_FALSE = 0; //削除フラグOFF(現役)
 
+    //ハートビートテーブル(プライマリに書き込んだ時刻をレプリカから読み取り、レプリカの遅延を計測する)
+    String TABLE_HEARTBEAT = "heartbeats"; //テーブル名
+    String HEARTBEAT_COL_ID = "id"; //id
+    String HEARTBEAT_COL_BEAT_AT = "beat_at"; //書き込んだ時刻(エポックミリ秒)
+    int HEARTBEAT_ID = 1; //ハートビートの行のid
+
     //日報テーブル
     String TABLE_REP = "reports"; //テーブル名
     //日報テーブルカラム
@@ -42,7 +106,28 @@ public interface JpaConst {
 
     String REP_COL_CLOCK_IN = "clock_in"; //出勤時刻
     String REP_COL_CLOCK_OUT = "clock_out"; //退勤時刻
+    String REP_COL_VERSION = "version"; //バージョン(楽観ロック用)
+    //日報テーブル一意制約
+    String REP_UK_EMP_REP_DATE = "uk_reports_employee_id_report_date"; //従業員毎の日付
+    //日報テーブルのパーティション
+    String REP_PARTITION_PREFIX = "p"; //月毎のパーティション名の接頭辞(例: p202604)
+    String REP_PARTITION_MAX = "pmax"; //作成済みの月より後の日付の日報を格納するパーティション
+
+
+    //id採番テーブル(idを割当数分まとめて採番し、INSERTをバッチで実行できるようにする)
+    String TABLE_ID_GEN = "id_generators"; //テーブル名
+    String ID_GEN_COL_NAME = "sequence_name"; //採番対象(テーブル名)
+    String ID_GEN_COL_NEXT_VAL = "next_val"; //割り当て済みのidの最大値
+    String ID_GEN_STRATEGY = "enhanced-table"; //採番方式(Hibernateのジェネレータ名)
+    String ID_GEN_OPTIMIZER = "pooled-lo"; //採番テーブルの値から割当数分のidを使用する
+    String ID_GEN_ALLOCATION_SIZE = "50"; //1回の採番で割り当てるidの数
+    String EMP_ID_GEN = "employee_id_generator"; //従業員idのジェネレータ名
+    String REP_ID_GEN = "report_id_generator"; //日報idのジェネレータ名
+    String REP_ID_GEN_STRATEGY = "utils.ShardedTableGenerator"; //日報idの採番方式(DBの数で割った余りがシャードの番号となるidを採番する)
 
+    //エンティティグラフ(取得時に合わせて取得する関連)
+    String REP_GRAPH_WITH_EMP = "Report.withEmployee"; //日報と作成者の従業員(作成者の氏名を表示する画面で使用)
+    String REP_ATTR_EMP = "employee"; //日報の作成者(Reportのフィールド名)
 
     //Entity名
     String ENTITY_EMP = "employee"; //従業員
@@ -54,6 +139,7 @@ public interface JpaConst {
     String JPQL_PARM_PASSWORD = "password"; //パスワード
     String JPQL_PARM_EMPLOYEE = "employee"; //従業員
     String JPQL_PARM_REP_DATE ="report_date";//いつの日報かを示す日付
+    String JPQL_PARM_CURSOR = "cursor"; //前ページの最後のレコードのid(カーソルによるページ送り)
 
     String JPQL_PARM_REP_AFTERDATE ="afterreport_date";//いつの日報かを示す日付
     String JPQL_PARM_REP_BEFOREDATE ="beforeport_date";//いつの日報かを示す日付
@@ -62,43 +148,46 @@ public interface JpaConst {
     //全ての従業員をidの降順に取得する
     String Q_EMP_GET_ALL = ENTITY_EMP + ".getAll"; //name
     String Q_EMP_GET_ALL_DEF = "SELECT e FROM Employee AS e ORDER BY e.id DESC"; //query
+    //指定したidより前(idの降順で後ろ)の従業員を取得する(カーソルによるページ送り)
+    String Q_EMP_GET_ALL_AFTER = ENTITY_EMP + ".getAllAfter";
+    String Q_EMP_GET_ALL_AFTER_DEF = "SELECT e FROM Employee AS e WHERE e.id < :" + JPQL_PARM_CURSOR + " ORDER BY e.id DESC";
     //全ての従業員の件数を取得する
     String Q_EMP_COUNT = ENTITY_EMP + ".count";
     String Q_EMP_COUNT_DEF = "SELECT COUNT(e) FROM Employee AS e";
     //社員番号とハッシュ化済パスワードを条件に未削除の従業員を取得する
     String Q_EMP_GET_BY_CODE_AND_PASS = ENTITY_EMP + ".getByCodeAndPass";
     String Q_EMP_GET_BY_CODE_AND_PASS_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = 0 AND e.code = :" + JPQL_PARM_CODE + " AND e.password = :" + JPQL_PARM_PASSWORD;
-    //指定した社員番号を保持する従業員の件数を取得する
-    String Q_EMP_COUNT_REGISTERED_BY_CODE = ENTITY_EMP + ".countRegisteredByCode";
-    String Q_EMP_COUNT_REGISTERED_BY_CODE_DEF = "SELECT COUNT(e) FROM Employee AS e WHERE e.code = :" + JPQL_PARM_CODE;
-    //指定した日付を保持する日報の件数を取得する
-    String Q_REP_COUNT_REGISTERED_BY_REP_DATE = ENTITY_REP + ".countRegisteredByDate";
-    String Q_REP_COUNT_REGISTERED_BY_REP_DATE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_DATE;
     //全ての日報をidの降順に取得する
     String Q_REP_GET_ALL = ENTITY_REP + ".getAll";
     String Q_REP_GET_ALL_DEF = "SELECT r FROM Report AS r ORDER BY r.id DESC";
+    //指定したidより前(idの降順で後ろ)の日報を取得する(カーソルによるページ送り)
+    String Q_REP_GET_ALL_AFTER = ENTITY_REP + ".getAllAfter";
+    String Q_REP_GET_ALL_AFTER_DEF = "SELECT r FROM Report AS r WHERE r.id < :" + JPQL_PARM_CURSOR + " ORDER BY r.id DESC";
     //全ての日報の件数を取得する
     String Q_REP_COUNT = ENTITY_REP + ".count";
     String Q_REP_COUNT_DEF = "SELECT COUNT(r) FROM Report AS r";
     //指定した従業員が作成した日報を全件idの降順で取得する
     String Q_REP_GET_ALL_MINE = ENTITY_REP + ".getAllMine";
     String Q_REP_GET_ALL_MINE_DEF = "SELECT r FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " ORDER BY r.id DESC";
+    //指定した従業員が作成した日報のうち、指定したidより前(idの降順で後ろ)の日報を取得する(カーソルによるページ送り)
+    String Q_REP_GET_ALL_MINE_AFTER = ENTITY_REP + ".getAllMineAfter";
+    String Q_REP_GET_ALL_MINE_AFTER_DEF = "SELECT r FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id < :" + JPQL_PARM_CURSOR + " ORDER BY r.id DESC";
     //指定した従業員が作成した日報の件数を取得する
     String Q_REP_COUNT_ALL_MINE = ENTITY_REP + ".countAllMine";
     String Q_REP_COUNT_ALL_MINE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE;
 
 
-    //指定した日付の１日前の日報の件数を取得する
+    //指定した従業員が作成した、指定した日付の１日前の日報を取得する
     String Q_REP_GET_REGISTERED_BY_REP_BEFOREDATE = ENTITY_REP + ".getRegisteredByBeforeDate";
-    String Q_REP_GET_REGISTERED_BY_REP_BEFOREDATE_DEF = "SELECT r FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_BEFOREDATE;
-    //指定した日付の１日後の日報の件数を取得する
+    String Q_REP_GET_REGISTERED_BY_REP_BEFOREDATE_DEF = "SELECT r FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_BEFOREDATE + " AND r.employee = :" + JPQL_PARM_EMPLOYEE;
+    //指定した従業員が作成した、指定した日付の１日後の日報を取得する
     String Q_REP_GET_REGISTERED_BY_REP_AFTERDATE = ENTITY_REP + ".getRegisteredByAfterDate";
-    String Q_REP_GET_REGISTERED_BY_REP_AFTERDATE_DEF = "SELECT r FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_AFTERDATE;
+    String Q_REP_GET_REGISTERED_BY_REP_AFTERDATE_DEF = "SELECT r FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_AFTERDATE + " AND r.employee = :" + JPQL_PARM_EMPLOYEE;
     //指定した日付とIDを保持する日報の件数を取得する
     String Q_REP_COUNT_REGISTERED_BY_REP_DATE_AND_EMP = ENTITY_REP + ".countRegisteredByDateAndEmp";
     String Q_REP_COUNT_REGISTERED_BY_REP_DATE_AND_EMP_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.reportDate  = :" + JPQL_PARM_REP_DATE+"AND r.employee = :" + JPQL_PARM_REP_EMP;
-    //指定した日付を保持する日報の件数を取得する
+    //指定した従業員が作成した、指定した日付の日報を取得する
     String Q_REP_GET_REGISTERED_BY_REP_DATE = ENTITY_REP + ".getRegisteredById";
-    String Q_REP_GET_REGISTERED_BY_REP_DATE_DEF = "SELECT r FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_DATE;
+    String Q_REP_GET_REGISTERED_BY_REP_DATE_DEF = "SELECT r FROM Report AS r WHERE r.reportDate = :" + JPQL_PARM_REP_DATE + " AND r.employee = :" + JPQL_PARM_EMPLOYEE;
 
 }
\ No newline at end of file
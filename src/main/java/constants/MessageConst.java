@@ -15,6 +15,9 @@ public enum MessageConst {
     I_REGISTERED("登録が完了しました。"),
     I_UPDATED("更新が完了しました。"),
     I_DELETED("削除が完了しました。"),
+    E_CONFLICT("他のユーザーによって更新されています。画面を再読み込みしてから、もう一度入力してください。"),
+    E_ARCHIVED("アーカイブされた日報は更新できません。"),
+    E_SHARD_MOVE("日報を作成した従業員は、日報を格納しているDBが異なる従業員には変更できません。"),
 
     //バリデーション
     E_NONAME("氏名を入力してください。"),
@@ -29,6 +32,8 @@ public enum MessageConst {
     E_REP_DATE_EXIST("同じ日付の日報が重複しています。"),
     E_CLOCK_IN_EXIST("出勤日時の値が不正です。"),
     E_CLOCK_OUT_EXIST("退勤日時の値が不正です。"),
+    E_INVALID_REP_DATE("日付の値が不正です。"),
+    E_INVALID_ADMIN_FLAG("権限の値が不正です。"),
     E_REP_ID_EXIST("同じ従業員IDの日報が重複しています。");
 
 
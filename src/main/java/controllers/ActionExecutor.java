@@ -0,0 +1,662 @@
+package controllers;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.http.HttpSession;
+
+import constants.AdmissionConst;
+import constants.ExecutorConst;
+
+/**
+ * リクエスト(Action・Serviceの処理)をコンテナのスレッドとは別のスレッドプールで実行するクラス
+ *
+ * スレッド数と待ち行列の長さに上限を設け、DBの応答が遅い場合でもコンテナのスレッドを占有しない
+ * 待ち行列が一杯の場合、および待ち行列での待機時間が上限を超えた場合は、処理を行わずに503を返却する
+ * 非同期処理の開始から応答までの時間にも上限(drs.async.timeout)を設け、超過した場合は
+ * 処理の開始前であれば503、処理中であれば504を返却する
+ * 処理中のスレッドは処理を続けるが、コンテナが完了させた(他のリクエストに再利用される)リクエスト・レスポンスには触れさせない
+ * (処理にはリクエスト・レスポンスのラッパーを渡し、タイムアウト後のフォワード・リダイレクト・応答の書き込みは何もせず、
+ * セッションの取得はIllegalStateExceptionとする)
+ * 処理の終了(スレッドの解放)は whenFinished で通知する(受付制御の同時実行数はタイムアウト時ではなく処理の終了時に戻す)
+ *
+ * drs.async.thread-mode=virtual を指定した場合(JDK 21以降)は、リクエスト毎に仮想スレッドを作成して処理する
+ * JDBCの応答待ちの間はキャリアスレッド(プラットフォームスレッド)を解放するため、スレッド数ではなく
+ * 同時に処理するリクエスト数(drs.async.virtual.max)で上限を設ける
+ * JDBCドライバ等のsynchronizedブロック内で待機するとキャリアスレッドに固定(pinning)されるため、
+ * jdk.tracePinnedThreads=short を既定で設定し、固定された箇所のスタックトレースを標準出力に出力する
+ * (JFRの jdk.VirtualThreadPinned イベントでも確認できる)
+ * プロジェクトはJava 11でコンパイルするため、仮想スレッドのAPIはリフレクションで呼び出す
+ */
+public class ActionExecutor implements ActionExecutorMXBean {
+
+    /**
+     * 非同期で実行する処理
+     */
+    @FunctionalInterface
+    public interface Work {
+        void run(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException;
+    }
+
+    private final ServletContext context;
+    private final ExecutorService executor;
+    private final String threadMode;
+    private final int maximumPoolSize;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+    private final long asyncTimeoutMillis;
+
+    /**
+     * 同時に処理するリクエスト数の上限(仮想スレッドの場合のみ スレッドプールの場合はnull)
+     */
+    private final Semaphore permits;
+
+    //計測値
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder asyncTimedOut = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param context ServletContext(エラーの出力に使用する)
+     * @param threads スレッド数
+     * @param queueCapacity 待ち行列の長さ
+     * @param queueTimeoutMillis 待ち行列で待機できる時間(ミリ秒)
+     * @param asyncTimeoutMillis 非同期処理の開始から応答までの時間の上限(ミリ秒 0の場合は上限を設けない)
+     */
+    public ActionExecutor(ServletContext context, int threads, int queueCapacity, long queueTimeoutMillis,
+            long asyncTimeoutMillis) {
+        this.context = context;
+        this.threadMode = ExecutorConst.THREAD_MODE_PLATFORM;
+        this.maximumPoolSize = threads;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+        this.permits = null;
+
+        //待ち行列が一杯の場合はRejectedExecutionExceptionを発生させる(AbortPolicy)
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), newThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * リクエスト毎に仮想スレッドを作成するインスタンスを作成する
+     * @param context ServletContext(エラーの出力に使用する)
+     * @param virtualExecutor 仮想スレッドを作成するExecutorService
+     * @param maxConcurrency 同時に処理するリクエスト数の上限
+     * @param queueTimeoutMillis 仮想スレッドの開始を待機できる時間(ミリ秒)
+     * @param asyncTimeoutMillis 非同期処理の開始から応答までの時間の上限(ミリ秒 0の場合は上限を設けない)
+     */
+    private ActionExecutor(ServletContext context, ExecutorService virtualExecutor, int maxConcurrency,
+            long queueTimeoutMillis, long asyncTimeoutMillis) {
+        this.context = context;
+        this.threadMode = ExecutorConst.THREAD_MODE_VIRTUAL;
+        this.maximumPoolSize = maxConcurrency;
+        this.queueCapacity = 0;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = virtualExecutor;
+    }
+
+    /**
+     * システムプロパティの設定値でインスタンスを作成する
+     * @param context ServletContext
+     * @return インスタンス(非同期処理を行わない設定の場合はnull)
+     */
+    public static ActionExecutor fromSystemProperties(ServletContext context) {
+        if ("false".equalsIgnoreCase(System.getProperty(ExecutorConst.ASYNC_ENABLED_KEY))) {
+            return null;
+        }
+
+        int queueTimeout = Integer.getInteger(ExecutorConst.ASYNC_QUEUE_TIMEOUT_KEY,
+                ExecutorConst.ASYNC_QUEUE_TIMEOUT_DEFAULT);
+        int asyncTimeout = Integer.getInteger(ExecutorConst.ASYNC_TIMEOUT_KEY, ExecutorConst.ASYNC_TIMEOUT_DEFAULT);
+
+        if (ExecutorConst.THREAD_MODE_VIRTUAL.equals(System.getProperty(ExecutorConst.ASYNC_THREAD_MODE_KEY))) {
+            ExecutorService virtualExecutor = newVirtualThreadExecutor(context);
+            if (virtualExecutor != null) {
+                return new ActionExecutor(context, virtualExecutor,
+                        Integer.getInteger(ExecutorConst.ASYNC_VIRTUAL_MAX_KEY, ExecutorConst.ASYNC_VIRTUAL_MAX_DEFAULT),
+                        queueTimeout, asyncTimeout);
+            }
+        }
+
+        return new ActionExecutor(context,
+                Integer.getInteger(ExecutorConst.ASYNC_THREADS_KEY, ExecutorConst.ASYNC_THREADS_DEFAULT),
+                Integer.getInteger(ExecutorConst.ASYNC_QUEUE_KEY, ExecutorConst.ASYNC_QUEUE_DEFAULT),
+                queueTimeout, asyncTimeout);
+    }
+
+    /**
+     * リクエスト毎に仮想スレッドを作成するExecutorServiceを作成する
+     * (Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(接頭辞, 1).factory()) と同じ)
+     * @param context ServletContext(エラーの出力に使用する)
+     * @return ExecutorService(仮想スレッドに対応していないJDKの場合はnull)
+     */
+    private static ExecutorService newVirtualThreadExecutor(ServletContext context) {
+        //仮想スレッドを作成する前に設定する(最初の仮想スレッドの作成時に読み込まれる)
+        if (System.getProperty(ExecutorConst.TRACE_PINNED_THREADS_KEY) == null) {
+            System.setProperty(ExecutorConst.TRACE_PINNED_THREADS_KEY, ExecutorConst.TRACE_PINNED_THREADS_DEFAULT);
+        }
+
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(builder, ExecutorConst.THREAD_NAME_PREFIX, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+
+        } catch (ReflectiveOperationException e) {
+            context.log("仮想スレッドに対応していないJDKのため、スレッドプールで処理します("
+                    + System.getProperty("java.version") + ")");
+            return null;
+        }
+    }
+
+    /**
+     * 非同期で処理するリクエストの処理が終了した時(処理を実行したスレッドを解放した時)に実行する処理を登録する
+     * 応答までの時間の上限を超えて504を返却した後も、処理を実行しているスレッドが終了するまでは実行しない
+     * @param request リクエスト
+     * @param callback 実行する処理(既に終了している場合はすぐに実行する)
+     * @return 登録した場合true(このクラスで非同期処理していないリクエストの場合false)
+     */
+    public static boolean whenFinished(ServletRequest request, Runnable callback) {
+        Object task = request.getAttribute(ExecutorConst.TASK_ATTRIBUTE);
+        if (!(task instanceof Task)) {
+            return false;
+        }
+        ((Task) task).whenFinished(callback);
+        return true;
+    }
+
+    /**
+     * 非同期処理を開始したリクエストの処理を待ち行列に追加する
+     * 処理の終了後(エラーの場合を含む)は非同期処理を完了させる
+     * 応答までの時間の上限を設定するため、非同期処理を開始したコンテナのスレッドから呼び出すこと
+     * @param async 非同期処理のコンテキスト
+     * @param work 実行する処理
+     * @throws IOException
+     */
+    public void submit(AsyncContext async, Work work) throws IOException {
+        long enqueuedAt = System.nanoTime();
+
+        Task task = new Task(async);
+        async.getRequest().setAttribute(ExecutorConst.TASK_ATTRIBUTE, task);
+
+        if (permits != null && !permits.tryAcquire()) {
+            //仮想スレッドで同時に処理するリクエスト数が上限に達している場合は処理を行わずに503を返却する
+            rejected.increment();
+            task.finish();
+            unavailable(async);
+            return;
+        }
+
+        async.setTimeout(asyncTimeoutMillis);
+        async.addListener(task);
+
+        try {
+            executor.execute(() -> {
+                try {
+                    run(task, work, enqueuedAt);
+                } finally {
+                    if (permits != null) {
+                        permits.release();
+                    }
+                    task.finish();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //待ち行列が一杯の場合(またはシャットダウン中の場合)は処理を行わずに503を返却する
+            if (permits != null) {
+                permits.release();
+            }
+            rejected.increment();
+            task.finish();
+            if (task.state.compareAndSet(Task.QUEUED, Task.DONE)) {
+                unavailable(async);
+            }
+        }
+    }
+
+    /**
+     * スレッドプールのスレッドで処理を実行する
+     */
+    private void run(Task task, Work work, long enqueuedAt) {
+        if (!task.state.compareAndSet(Task.QUEUED, Task.RUNNING)) {
+            //待機中に応答までの時間の上限を超え、既に503を返却している
+            return;
+        }
+
+        AsyncContext async = task.async;
+        long waited = System.nanoTime() - enqueuedAt;
+        recordWait(waited);
+        active.incrementAndGet();
+
+        try {
+            if (waited > queueTimeoutNanos) {
+                //待機中にクライアントが応答を待てる時間を過ぎている可能性が高いため、処理を行わずに503を返却する
+                timedOut.increment();
+                sendUnavailable((HttpServletResponse) async.getResponse());
+                return;
+            }
+
+            work.run(task.request, task.response);
+
+        } catch (ServletException | IOException | RuntimeException e) {
+            if (!task.isRunning()) {
+                //応答までの時間の上限を超え、既に504を返却している(リクエスト・レスポンスは使用できない)
+                context.log("応答までの時間の上限を超えたため、処理の結果を破棄しました: " + e);
+                return;
+            }
+
+            //コンテナのスレッドで処理した場合と同様に、エラーを出力し500を返却する
+            //(ラッパーを通して返却するため、その間にタイムアウトした場合は何もしない)
+            context.log("リクエストの処理中にエラーが発生しました", e);
+            try {
+                if (!task.response.isCommitted()) {
+                    task.response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            } catch (IOException | IllegalStateException ignore) {
+            }
+        } finally {
+            active.decrementAndGet();
+            completed.increment();
+            if (task.state.compareAndSet(Task.RUNNING, Task.DONE)) {
+                //応答までの時間の上限を超えた場合は、タイムアウトの処理で完了させている
+                async.complete();
+            }
+        }
+    }
+
+    /**
+     * 503を返却し、非同期処理を完了させる
+     */
+    private static void unavailable(AsyncContext async) throws IOException {
+        try {
+            sendUnavailable((HttpServletResponse) async.getResponse());
+        } finally {
+            async.complete();
+        }
+    }
+
+    /**
+     * 503(Retry-Afterヘッダ付き)を返却する
+     */
+    private static void sendUnavailable(HttpServletResponse response) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(AdmissionConst.RETRY_AFTER_SECONDS));
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * 非同期で実行する処理の状態を管理し、応答までの時間の上限を超えた場合に応答を返却するリスナー
+     * 処理を実行するスレッドとタイムアウトを通知するコンテナのスレッドのうち、先に状態を変更した側が非同期処理を完了させる
+     * 処理中のリクエスト・レスポンスへの書き込み・フォワードとタイムアウトによる状態の変更は、このオブジェクトで排他する
+     * (書き込みの途中でタイムアウトの応答を返却しない)
+     */
+    private class Task implements AsyncListener {
+
+        static final int QUEUED = 0; //待機中
+        static final int RUNNING = 1; //処理中
+        static final int DONE = 2; //完了(またはタイムアウトの応答を返却済み)
+
+        private final AsyncContext async;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        /**
+         * 処理に渡すリクエスト・レスポンス(タイムアウト後は元のリクエスト・レスポンスに触れない)
+         */
+        private final GuardedRequest request;
+        private final GuardedResponse response;
+
+        /**
+         * 処理の終了時に実行する処理(終了後はnull)
+         */
+        private List<Runnable> callbacks = new ArrayList<>();
+
+        Task(AsyncContext async) {
+            this.async = async;
+            this.request = new GuardedRequest(this, (HttpServletRequest) async.getRequest());
+            this.response = new GuardedResponse(this, (HttpServletResponse) async.getResponse());
+        }
+
+        boolean isRunning() {
+            return state.get() == RUNNING;
+        }
+
+        void whenFinished(Runnable callback) {
+            synchronized (this) {
+                if (callbacks != null) {
+                    callbacks.add(callback);
+                    return;
+                }
+            }
+            callback.run();
+        }
+
+        /**
+         * 処理の終了(または処理を行わずに返却したこと)を通知する
+         */
+        void finish() {
+            List<Runnable> finished;
+            synchronized (this) {
+                finished = callbacks;
+                callbacks = null;
+            }
+            if (finished != null) {
+                finished.forEach(Runnable::run);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            int previous;
+            synchronized (this) {
+                //処理中のスレッドが書き込み・フォワードを終えるまで待機する
+                previous = state.getAndSet(DONE);
+            }
+            if (previous == DONE) {
+                //処理の完了と同時にタイムアウトした場合は、処理を実行したスレッドで完了させる
+                return;
+            }
+
+            asyncTimedOut.increment();
+            try {
+                HttpServletResponse response = (HttpServletResponse) event.getAsyncContext().getResponse();
+                if (!response.isCommitted()) {
+                    if (previous == QUEUED) {
+                        //処理を開始していないため、再試行を促す503を返却する
+                        sendUnavailable(response);
+                    } else {
+                        response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                    }
+                }
+            } finally {
+                event.getAsyncContext().complete();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * 処理中のみ元のリクエストを使用させるラッパー
+     * タイムアウト後のフォワード・インクルードは何もせず、セッションの取得はIllegalStateExceptionとする
+     */
+    private static class GuardedRequest extends HttpServletRequestWrapper {
+
+        private final Task task;
+
+        GuardedRequest(Task task, HttpServletRequest request) {
+            super(request);
+            this.task = task;
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            synchronized (task) {
+                if (!task.isRunning()) {
+                    throw new IllegalStateException("応答までの時間の上限を超えたため、セッションは使用できません");
+                }
+                return super.getSession(create);
+            }
+        }
+
+        @Override
+        public RequestDispatcher getRequestDispatcher(String path) {
+            RequestDispatcher dispatcher = super.getRequestDispatcher(path);
+            if (dispatcher == null) {
+                return null;
+            }
+            return new RequestDispatcher() {
+                @Override
+                public void forward(ServletRequest request, ServletResponse response)
+                        throws ServletException, IOException {
+                    synchronized (task) {
+                        if (task.isRunning()) {
+                            dispatcher.forward(request, response);
+                        }
+                    }
+                }
+
+                @Override
+                public void include(ServletRequest request, ServletResponse response)
+                        throws ServletException, IOException {
+                    synchronized (task) {
+                        if (task.isRunning()) {
+                            dispatcher.include(request, response);
+                        }
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * 処理中のみ元のレスポンスに書き込ませるラッパー
+     * タイムアウト後のリダイレクト・エラー・ステータスの設定は何もせず、本文は破棄する
+     */
+    private static class GuardedResponse extends HttpServletResponseWrapper {
+
+        private final Task task;
+
+        GuardedResponse(Task task, HttpServletResponse response) {
+            super(response);
+            this.task = task;
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            synchronized (task) {
+                if (task.isRunning()) {
+                    super.sendRedirect(location);
+                }
+            }
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            synchronized (task) {
+                if (task.isRunning()) {
+                    super.sendError(sc);
+                }
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            synchronized (task) {
+                if (task.isRunning()) {
+                    super.sendError(sc, msg);
+                }
+            }
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            synchronized (task) {
+                if (task.isRunning()) {
+                    super.setStatus(sc);
+                }
+            }
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            synchronized (task) {
+                if (task.isRunning()) {
+                    return super.getWriter();
+                }
+            }
+            return new PrintWriter(Writer.nullWriter());
+        }
+
+        @Override
+        public boolean isCommitted() {
+            synchronized (task) {
+                return !task.isRunning() || super.isCommitted();
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waitCount.increment();
+        waitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 計測値をJMXに公開する
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ExecutorConst.MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            context.log("計測値をJMXに公開できません", e);
+        }
+    }
+
+    /**
+     * スレッドプールを停止する(処理中・待機中のリクエストは完了を待つ)
+     */
+    public void shutdown() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(ExecutorConst.MBEAN_NAME));
+        } catch (JMException e) {
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(ExecutorConst.ASYNC_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, ExecutorConst.THREAD_NAME_PREFIX + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String getThreadMode() {
+        return threadMode;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    @Override
+    public long getAsyncTimedOutCount() {
+        return asyncTimedOut.sum();
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        long count = waitCount.sum();
+        return count == 0 ? 0 : waitNanos.sum() / (double) count / 1_000_000;
+    }
+
+    @Override
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+}
@@ -0,0 +1,63 @@
+package controllers;
+
+/**
+ * リクエスト処理用スレッドプールの計測値をJMXで公開するインターフェース
+ * (MBean名: constants.ExecutorConst.MBEAN_NAME jconsole等から参照する)
+ */
+public interface ActionExecutorMXBean {
+
+    /**
+     * @return スレッドの種類(platform: スレッドプール virtual: 仮想スレッド)
+     */
+    String getThreadMode();
+
+    /**
+     * @return 待ち行列で実行を待っているリクエストの数
+     */
+    int getQueueDepth();
+
+    /**
+     * @return 待ち行列の長さ(仮想スレッドの場合は待ち行列を使用しないため0)
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return 処理中のリクエストの数
+     */
+    int getActiveCount();
+
+    /**
+     * @return スレッド数の上限(仮想スレッドの場合は同時に処理するリクエスト数の上限)
+     */
+    int getMaximumPoolSize();
+
+    /**
+     * @return 処理が完了したリクエストの数
+     */
+    long getCompletedCount();
+
+    /**
+     * @return 待ち行列が一杯のため503を返却したリクエストの数
+     */
+    long getRejectedCount();
+
+    /**
+     * @return 待ち行列での待機時間(仮想スレッドの場合は開始までの時間)が上限を超えたため503を返却したリクエストの数
+     */
+    long getTimedOutCount();
+
+    /**
+     * @return 応答までの時間の上限を超えたため503(処理の開始前)または504(処理中)を返却したリクエストの数
+     */
+    long getAsyncTimedOutCount();
+
+    /**
+     * @return 待ち行列での平均待機時間(ミリ秒)
+     */
+    double getAverageWaitMillis();
+
+    /**
+     * @return 待ち行列での最大待機時間(ミリ秒)
+     */
+    long getMaxWaitMillis();
+}
@@ -3,6 +3,8 @@ package controllers;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 
+import javax.management.JMException;
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -12,25 +14,116 @@ import javax.servlet.http.HttpServletResponse;
 import actions.ActionBase;
 import actions.UnknownAction;
 import constants.ForwardConst;
+import services.ReplicaRouter;
+import services.SingleFlight;
+import utils.PartitionManager;
+import utils.ReportArchiver;
 
 /**
  * フロントコントローラ
  *
+ * Action・Serviceの処理は非同期処理を開始し、ActionExecutorのスレッドプールで実行する
+ * (DBの応答待ちの間もコンテナのスレッドを解放し、静的ファイルやログイン画面等の軽い処理に使えるようにする)
+ * システムプロパティ drs.async.enabled=false を指定した場合は、従来通りコンテナのスレッドで実行する
  */
-@WebServlet("/")
+@WebServlet(urlPatterns = "/", asyncSupported = true)
 public class FrontController extends HttpServlet {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * リクエスト処理用のスレッドプール(非同期処理を行わない場合はnull)
+     */
+    private transient ActionExecutor executor;
+
     public FrontController() {
         super();
     }
 
+    /**
+     * @see HttpServlet#init()
+     */
+    @Override
+    public void init() throws ServletException {
+        executor = ActionExecutor.fromSystemProperties(getServletContext());
+        if (executor != null) {
+            executor.registerMBean();
+        }
+
+        //同時に実行された同じ参照処理の集約件数をJMXに公開する
+        try {
+            SingleFlight.getInstance().registerMBean();
+        } catch (JMException e) {
+            getServletContext().log("計測値をJMXに公開できません", e);
+        }
+
+        //レプリカの接続先が指定されている場合、レプリカの遅延の計測を開始する
+        try {
+            ReplicaRouter.getInstance().start();
+        } catch (JMException e) {
+            getServletContext().log("計測値をJMXに公開できません", e);
+        }
+
+        //パーティションの管理が有効な場合、日報テーブルのパーティションの保守を開始する
+        PartitionManager.getInstance().start(getServletContext()::log);
+
+        //アーカイブが有効な場合、古い日報のアーカイブを開始する
+        ReportArchiver.getInstance().start(getServletContext()::log);
+    }
+
+    /**
+     * @see HttpServlet#destroy()
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        ReplicaRouter.getInstance().shutdown();
+        PartitionManager.getInstance().shutdown();
+        ReportArchiver.getInstance().shutdown();
+    }
+
     /**
      * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
      */
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
+        if (executor == null || !request.isAsyncSupported() || isLightweight(request)) {
+            //コンテナのスレッドで処理する
+            execute(request, response);
+            return;
+        }
+
+        //非同期処理を開始し、スレッドプールで処理する(待機時間・応答までの時間の上限はActionExecutorで設定する)
+        //処理にはActionExecutorがリクエスト・レスポンスのラッパーを渡す(タイムアウト後は元のリクエスト・レスポンスを使用しない)
+        AsyncContext async = request.startAsync(request, response);
+        executor.submit(async, this::execute);
+    }
+
+    /**
+     * DBにアクセスしない軽い処理かどうか(ログイン画面の表示、ログアウト)
+     * 軽い処理は待ち行列に追加せず、コンテナのスレッドで処理する
+     * @param request リクエスト
+     * @return 軽い処理の場合true
+     */
+    private boolean isLightweight(HttpServletRequest request) {
+        String command = request.getParameter(ForwardConst.CMD.getValue());
+        return ForwardConst.ACT_AUTH.getValue().equals(request.getParameter(ForwardConst.ACT.getValue()))
+                && (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)
+                        || ForwardConst.CMD_LOGOUT.getValue().equals(command));
+    }
+
+    /**
+     * リクエストに該当するActionクラスの処理を実行する
+     * @param request リクエスト
+     * @param response レスポンス
+     * @throws ServletException
+     * @throws IOException
+     */
+    private void execute(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
         //パラメータに該当するActionクラスのインスタンス
         ActionBase action = getAction(request, response);
 
@@ -0,0 +1,214 @@
+package filters;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.AdmissionConst;
+import constants.ForwardConst;
+import controllers.ActionExecutor;
+
+/**
+ * 受付制御を行うフィルタ
+ *
+ * 処理の種類(actionとcommandの組み合わせ)毎に同時実行数の上限を設け、上限に達した処理は短時間だけ待機させ、
+ * それでも開始できない場合は処理を行わずに503(Retry-Afterヘッダ付き)を返却する
+ * 重い処理(管理者による従業員一覧の深いページ送り等)が滞留しても、日報の登録等の他の処理はそのまま受け付ける
+ * 上限は処理の種類毎に観測した応答時間に応じて増減させる(ConcurrencyLimit)
+ */
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
+public class AdmissionFilter implements Filter {
+
+    private final ConcurrentMap<String, ConcurrencyLimit> limits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> maxLimits = new HashMap<>();
+    private final Set<String> actions = new TreeSet<>();
+    private final Set<String> commands = new TreeSet<>();
+    private boolean enabled;
+
+    /**
+     * Default constructor.
+     */
+    public AdmissionFilter() {
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        String servletPath = ((HttpServletRequest) request).getServletPath();
+        if (!enabled || servletPath.matches("/css.*")) {
+            // CSSフォルダ内は受付制御から除外する
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ConcurrencyLimit limit = getLimit(route(request));
+
+        boolean acquired;
+        try {
+            acquired = limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            //過負荷のため処理を行わずに503を返却する
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setHeader("Retry-After", String.valueOf(AdmissionConst.RETRY_AFTER_SECONDS));
+            httpResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+
+            if (request.isAsyncStarted()) {
+                //非同期処理の場合は、処理を実行したスレッドの終了時に同時実行数を戻す
+                //(応答までの時間の上限を超えて504を返却した後も、処理中のスレッド・DB接続は使用中のため戻さない)
+                async = true;
+                if (!ActionExecutor.whenFinished(request, () -> limit.release(System.nanoTime() - start))) {
+                    request.getAsyncContext().addListener(new ReleaseListener(limit, start));
+                }
+            }
+        } finally {
+            if (!async) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+        enabled = !"false".equalsIgnoreCase(System.getProperty(AdmissionConst.ADMISSION_ENABLED_KEY));
+
+        //ForwardConstに定義されているaction・commandの組み合わせ毎に上限を管理する(それ以外はまとめて管理する)
+        for (ForwardConst constant : EnumSet.allOf(ForwardConst.class)) {
+            if (constant.name().startsWith("ACT_")) {
+                actions.add(constant.getValue());
+            } else if (constant.name().startsWith("CMD_")) {
+                commands.add(constant.getValue());
+            }
+        }
+
+        parseLimits(AdmissionConst.LIMITS_DEFAULT);
+        parseLimits(System.getProperty(AdmissionConst.ADMISSION_LIMITS_KEY));
+    }
+
+    /**
+     * 処理の種類毎の同時実行数の上限を解析する(例: Employee.index:4,Report.index:8)
+     */
+    private void parseLimits(String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        for (String item : value.split(",")) {
+            String[] pair = item.split(":");
+            maxLimits.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+    }
+
+    /**
+     * リクエストの処理の種類を取得する(例: Report.index)
+     */
+    private String route(ServletRequest request) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            //EncodingFilterより先に呼び出された場合も、パラメータを正しい文字コードで解析させる
+            request.setCharacterEncoding("UTF-8");
+        }
+
+        String action = request.getParameter(ForwardConst.ACT.getValue());
+        String command = request.getParameter(ForwardConst.CMD.getValue());
+
+        if (action == null) {
+            //actionの指定がない場合はトップページを表示する(ActionBase)
+            action = ForwardConst.ACT_TOP.getValue();
+        }
+        if (command == null) {
+            command = ForwardConst.CMD_INDEX.getValue();
+        }
+
+        if (!actions.contains(action) || !commands.contains(command)) {
+            return AdmissionConst.ROUTE_OTHER;
+        }
+        return action + "." + command;
+    }
+
+    private ConcurrencyLimit getLimit(String route) {
+        return limits.computeIfAbsent(route, key -> {
+            int max = maxLimits.getOrDefault(key, AdmissionConst.LIMIT_MAX_DEFAULT);
+            return new ConcurrencyLimit(Math.min(AdmissionConst.LIMIT_INITIAL, max), AdmissionConst.LIMIT_MIN,
+                    max, AdmissionConst.QUEUE_SIZE, AdmissionConst.QUEUE_TIMEOUT);
+        });
+    }
+
+    /**
+     * 非同期処理の完了時に同時実行数を戻すリスナー(ActionExecutor以外で非同期処理した場合)
+     */
+    private static class ReleaseListener implements AsyncListener {
+
+        private final ConcurrencyLimit limit;
+        private final long start;
+        private boolean released;
+
+        ReleaseListener(ConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            //タイムアウト後に完了した時点(onComplete)で戻す
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package filters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 処理の種類毎の同時実行数の上限を管理するクラス
+ *
+ * 上限は観測した応答時間に応じて増減させる(勾配方式)
+ * 応答時間の長期平均に対して直近の応答時間が長くなった場合(DB等で待ちが発生している場合)は上限を下げ、
+ * 応答時間が長期平均程度に収まっている場合は上限を少しずつ上げる
+ * 上限に達した場合は、少数のリクエストのみ短時間待機させ、それ以外はすぐに拒否する
+ */
+public class ConcurrencyLimit {
+
+    //応答時間の長期平均の平滑化係数(直近およそ20件分)
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+    //上限の変更の平滑化係数
+    private static final double LIMIT_SMOOTHING = 0.2;
+    //長期平均に対して許容する応答時間の倍率(これより遅い場合に上限を下げる)
+    private static final double TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long queueTimeoutNanos;
+
+    private double limit;
+    private double longRttNanos;
+    private int inFlight;
+    private int waiting;
+
+    /**
+     * @param initialLimit 同時実行数の上限の初期値
+     * @param minLimit 同時実行数の上限の最小値
+     * @param maxLimit 同時実行数の上限の最大値
+     * @param queueSize 上限に達した場合に待機できるリクエストの数
+     * @param queueTimeoutMillis 待機できる時間(ミリ秒)
+     */
+    public ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int queueSize, long queueTimeoutMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.queueSize = queueSize;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+    }
+
+    /**
+     * 処理の開始を要求する(上限に達している場合は待ち行列で短時間待機する)
+     * @return 開始できる場合true(終了時に必ずrelease()を呼び出す) 開始できない場合false
+     * @throws InterruptedException
+     */
+    public synchronized boolean acquire() throws InterruptedException {
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return true;
+        }
+        if (waiting >= queueSize) {
+            return false;
+        }
+
+        waiting++;
+        try {
+            long remaining = queueTimeoutNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                long start = System.nanoTime();
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining -= System.nanoTime() - start;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            waiting--;
+        }
+    }
+
+    /**
+     * 処理の終了を通知し、応答時間から上限を更新する
+     * @param rttNanos 処理の応答時間(ナノ秒)
+     */
+    public synchronized void release(long rttNanos) {
+        int sampledInFlight = inFlight;
+        inFlight--;
+        update(rttNanos, sampledInFlight);
+        notifyAll();
+    }
+
+    private void update(long rttNanos, int sampledInFlight) {
+        longRttNanos = longRttNanos == 0
+                ? rttNanos
+                : longRttNanos * (1 - LONG_RTT_SMOOTHING) + rttNanos * LONG_RTT_SMOOTHING;
+
+        //同時実行数が上限の半分未満の場合は、上限が応答時間に影響していないため更新しない
+        if (sampledInFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    /**
+     * @return 現在の同時実行数の上限
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return 処理中のリクエストの数
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
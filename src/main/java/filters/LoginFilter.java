@@ -21,7 +21,7 @@ import constants.ForwardConst;
 /**
  * Servlet Filter implementation class LoginFilter
  */
-@WebFilter("/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class LoginFilter implements Filter {
 
     /**
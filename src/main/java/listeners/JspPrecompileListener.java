@@ -0,0 +1,124 @@
+package listeners;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.ServletRegistration;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * 起動時にJSPのプリコンパイル結果を検証するリスナー
+ *
+ * ビルド時(mvn package)にWEB-INF/views配下のJSPはサーブレットクラスへコンパイルされ、
+ * web.xmlにJSPのパスでマッピングされる。
+ * プリコンパイル済みのJSPが1つでも登録されている場合、全てのJSPについてクラスが読み込めることを確認し、
+ * 読み込めないJSPがあればアプリケーションの起動を失敗させる(初回アクセス時のエラーを防ぐ)。
+ * プリコンパイル済みのJSPが1つもない場合(IDEから起動した場合等)は、従来通り初回アクセス時にコンパイルする。
+ */
+@WebListener
+public class JspPrecompileListener implements ServletContextListener {
+
+    /**
+     * 検証対象のJSPを配置しているパス
+     */
+    public static final String VIEW_ROOT = "/WEB-INF/views/";
+
+    public JspPrecompileListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+
+        Set<String> jsps = findJsps(context, VIEW_ROOT);
+        Map<String, String> precompiled = getPrecompiledServlets(context);
+
+        if (precompiled.isEmpty()) {
+            context.log("プリコンパイル済みのJSPがありません。JSPは初回アクセス時にコンパイルされます");
+            return;
+        }
+
+        //全てのJSPについて、プリコンパイル済みのクラスが読み込めることを確認する
+        List<String> errors = new ArrayList<String>();
+        for (String jsp : jsps) {
+            String className = precompiled.get(jsp);
+
+            if (className == null) {
+                errors.add(jsp + " はプリコンパイルされていません");
+                continue;
+            }
+
+            try {
+                Class.forName(className, true, context.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                errors.add(jsp + " のクラス(" + className + ")を読み込めません: " + e);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("JSPのプリコンパイル結果に誤りがあります\n" + String.join("\n", errors));
+        }
+
+        context.log(String.format("プリコンパイル済みのJSP %d件を確認しました", jsps.size()));
+    }
+
+    /**
+     * 指定したパス配下のJSPのパスを再帰的に取得する
+     * @param context ServletContext
+     * @param path 検索するパス("/"で終わる)
+     * @return JSPのパスの一覧(例: /WEB-INF/views/reports/index.jsp)
+     */
+    public static Set<String> findJsps(ServletContext context, String path) {
+        Set<String> jsps = new TreeSet<String>();
+        Set<String> children = context.getResourcePaths(path);
+
+        if (children == null) {
+            return jsps;
+        }
+
+        for (String child : children) {
+            if (child.endsWith("/")) {
+                jsps.addAll(findJsps(context, child));
+            } else if (child.endsWith(".jsp")) {
+                jsps.add(child);
+            }
+        }
+        return jsps;
+    }
+
+    /**
+     * JSPのパスにマッピングされているサーブレット(プリコンパイル済みのJSP)を取得する
+     * @param context ServletContext
+     * @return JSPのパスとサーブレットのクラス名のMap
+     */
+    private static Map<String, String> getPrecompiledServlets(ServletContext context) {
+        Map<String, String> servlets = new HashMap<String, String>();
+
+        for (ServletRegistration registration : context.getServletRegistrations().values()) {
+            Collection<String> mappings = registration.getMappings();
+
+            for (String mapping : mappings) {
+                if (mapping.startsWith(VIEW_ROOT) && mapping.endsWith(".jsp")) {
+                    servlets.put(mapping, registration.getClassName());
+                }
+            }
+        }
+        return servlets;
+    }
+}
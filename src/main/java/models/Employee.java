@@ -5,11 +5,16 @@ import java.time.LocalDateTime;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
@@ -21,17 +26,20 @@ import lombok.Setter;
  * 従業員データのDTOモデル
  *
  */
-@Table(name = JpaConst.TABLE_EMP)
+@Table(name = JpaConst.TABLE_EMP, uniqueConstraints = {
+    //社員番号は重複できない
+    @UniqueConstraint(name = JpaConst.EMP_UK_CODE, columnNames = { JpaConst.EMP_COL_CODE })
+})
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_EMP_GET_ALL,
             query = JpaConst.Q_EMP_GET_ALL_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_ALL_AFTER,
+            query = JpaConst.Q_EMP_GET_ALL_AFTER_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_COUNT,
             query = JpaConst.Q_EMP_COUNT_DEF),
-    @NamedQuery(
-            name = JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE,
-            query = JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS,
             query = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS_DEF)
@@ -46,16 +54,25 @@ public class Employee {
 
     /**
      * id
+     * 採番テーブルから割当数分まとめて採番する(登録時にINSERTを即時に実行しないため、バッチで実行できる)
      */
     @Id
     @Column(name = JpaConst.EMP_COL_ID)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = JpaConst.EMP_ID_GEN)
+    @GenericGenerator(name = JpaConst.EMP_ID_GEN, strategy = JpaConst.ID_GEN_STRATEGY, parameters = {
+            @Parameter(name = TableGenerator.TABLE_PARAM, value = JpaConst.TABLE_ID_GEN),
+            @Parameter(name = TableGenerator.SEGMENT_COLUMN_PARAM, value = JpaConst.ID_GEN_COL_NAME),
+            @Parameter(name = TableGenerator.VALUE_COLUMN_PARAM, value = JpaConst.ID_GEN_COL_NEXT_VAL),
+            @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = JpaConst.TABLE_EMP),
+            @Parameter(name = TableGenerator.INCREMENT_PARAM, value = JpaConst.ID_GEN_ALLOCATION_SIZE),
+            @Parameter(name = TableGenerator.OPT_PARAM, value = JpaConst.ID_GEN_OPTIMIZER)
+    })
     private Integer id;
 
     /**
      * 社員番号
      */
-    @Column(name = JpaConst.EMP_COL_CODE, nullable = false, unique = true)
+    @Column(name = JpaConst.EMP_COL_CODE, nullable = false)
     private String code;
 
     /**
@@ -94,4 +111,11 @@ public class Employee {
     @Column(name = JpaConst.EMP_COL_DELETE_FLAG, nullable = false)
     private Integer deleteFlag;
 
+    /**
+     * バージョン(楽観ロック用 更新の度に1加算される)
+     */
+    @Version
+    @Column(name = JpaConst.EMP_COL_VERSION, nullable = false)
+    private Integer version;
+
 }
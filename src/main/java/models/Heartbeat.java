@@ -0,0 +1,41 @@
+package models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ハートビートデータのDTOモデル
+ * プライマリに定期的に現在時刻を書き込み、レプリカに反映された時刻からレプリカの遅延を計測する
+ *
+ */
+@Table(name = JpaConst.TABLE_HEARTBEAT)
+
+@Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
+@Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
+@NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
+@AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@Entity
+public class Heartbeat {
+
+    /**
+     * id
+     */
+    @Id
+    @Column(name = JpaConst.HEARTBEAT_COL_ID)
+    private Integer id;
+
+    /**
+     * 書き込んだ時刻(エポックミリ秒)
+     */
+    @Column(name = JpaConst.HEARTBEAT_COL_BEAT_AT, nullable = false)
+    private Long beatAt;
+
+}
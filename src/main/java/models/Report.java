@@ -5,15 +5,24 @@ import java.time.LocalDateTime;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
@@ -25,23 +34,29 @@ import lombok.Setter;
  * 日報データのDTOモデル
  *
  */
-@Table(name = JpaConst.TABLE_REP)
+@Table(name = JpaConst.TABLE_REP, uniqueConstraints = {
+    //同じ従業員の同じ日付の日報は登録できない
+    @UniqueConstraint(name = JpaConst.REP_UK_EMP_REP_DATE, columnNames = { JpaConst.REP_COL_EMP, JpaConst.REP_COL_REP_DATE })
+})
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_REP_GET_ALL,
             query = JpaConst.Q_REP_GET_ALL_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_AFTER,
+            query = JpaConst.Q_REP_GET_ALL_AFTER_DEF),
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT,
             query = JpaConst.Q_REP_COUNT_DEF),
     @NamedQuery(
             name = JpaConst.Q_REP_GET_ALL_MINE,
             query = JpaConst.Q_REP_GET_ALL_MINE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_MINE_AFTER,
+            query = JpaConst.Q_REP_GET_ALL_MINE_AFTER_DEF),
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT_ALL_MINE,
             query = JpaConst.Q_REP_COUNT_ALL_MINE_DEF),
-    @NamedQuery(
-            name = JpaConst.Q_REP_COUNT_REGISTERED_BY_REP_DATE,
-            query = JpaConst.Q_REP_COUNT_REGISTERED_BY_REP_DATE_DEF),
 
     @NamedQuery(
             name = JpaConst.Q_REP_GET_REGISTERED_BY_REP_BEFOREDATE,
@@ -60,26 +75,42 @@ import lombok.Setter;
 
 
 })
+//作成者の従業員を合わせて取得する(一覧・詳細画面など、作成者の氏名を表示する場合に使用する)
+@NamedEntityGraph(
+        name = JpaConst.REP_GRAPH_WITH_EMP,
+        attributeNodes = @NamedAttributeNode(JpaConst.REP_ATTR_EMP))
 
 @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
 @Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@DynamicUpdate //更新時は変更されたカラムのみをUPDATE文に含める(Hibernate) 出勤・退勤時刻の修正で内容(@Lob)を送信しない
 @Entity
 public class Report {
 
     /**
      * id
+     * 採番テーブルから割当数分まとめて採番する(登録時にINSERTを即時に実行しないため、バッチで実行できる)
+     * 日報を分割して格納する場合は、DBの数で割った余りが格納するシャードの番号となる値に変換する
      */
     @Id
     @Column(name = JpaConst.REP_COL_ID)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = JpaConst.REP_ID_GEN)
+    @GenericGenerator(name = JpaConst.REP_ID_GEN, strategy = JpaConst.REP_ID_GEN_STRATEGY, parameters = {
+            @Parameter(name = TableGenerator.TABLE_PARAM, value = JpaConst.TABLE_ID_GEN),
+            @Parameter(name = TableGenerator.SEGMENT_COLUMN_PARAM, value = JpaConst.ID_GEN_COL_NAME),
+            @Parameter(name = TableGenerator.VALUE_COLUMN_PARAM, value = JpaConst.ID_GEN_COL_NEXT_VAL),
+            @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = JpaConst.TABLE_REP),
+            @Parameter(name = TableGenerator.INCREMENT_PARAM, value = JpaConst.ID_GEN_ALLOCATION_SIZE),
+            @Parameter(name = TableGenerator.OPT_PARAM, value = JpaConst.ID_GEN_OPTIMIZER)
+    })
     private Integer id;
 
     /**
      * 日報を登録した従業員
+     * 必要な場合のみ取得する(エンティティグラフ JpaConst.REP_GRAPH_WITH_EMP を指定した場合は合わせて取得する)
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = JpaConst.REP_COL_EMP, nullable = false)
     private Employee employee;
 
@@ -127,4 +158,11 @@ public class Report {
     @Column(name = JpaConst.REP_COL_CLOCK_OUT , nullable = false)
     private LocalDateTime clock_out;
 
+    /**
+     * バージョン(楽観ロック用 更新の度に1加算される)
+     */
+    @Version
+    @Column(name = JpaConst.REP_COL_VERSION, nullable = false)
+    private Integer version;
+
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import java.util.List;
 
 import actions.views.EmployeeView;
 import constants.MessageConst;
-import services.EmployeeService;
 
 /**
  * 従業員インスタンスに設定されている値のバリデーションを行うクラス
@@ -15,18 +14,16 @@ public class EmployeeValidator {
 
     /**
      * 従業員インスタンスの各項目についてバリデーションを行う
-     * @param service 呼び出し元Serviceクラスのインスタンス
+     * (社員番号の重複は、登録・更新時に一意制約で確認する)
      * @param ev EmployeeViewのインスタンス
-     * @param codeDuplicateCheckFlag 社員番号の重複チェックを実施するかどうか(実施する:true 実施しない:false)
      * @param passwordCheckFlag パスワードの入力チェックを実施するかどうか(実施する:true 実施しない:false)
      * @return エラーのリスト
      */
-    public static List<String> validate(
-            EmployeeService service, EmployeeView ev, Boolean codeDuplicateCheckFlag, Boolean passwordCheckFlag) {
+    public static List<String> validate(EmployeeView ev, Boolean passwordCheckFlag) {
         List<String> errors = new ArrayList<String>();
 
         //社員番号のチェック
-        String codeError = validateCode(service, ev.getCode(), codeDuplicateCheckFlag);
+        String codeError = validateCode(ev.getCode());
         if (!codeError.equals("")) {
             errors.add(codeError);
         }
@@ -48,44 +45,20 @@ public class EmployeeValidator {
 
     /**
      * 社員番号の入力チェックを行い、エラーメッセージを返却
-     * @param service EmployeeServiceのインスタンス
      * @param code 社員番号
-     * @param codeDuplicateCheckFlag 社員番号の重複チェックを実施するかどうか(実施する:true 実施しない:false)
      * @return エラーメッセージ
      */
-    private static String validateCode(EmployeeService service, String code, Boolean codeDuplicateCheckFlag) {
+    private static String validateCode(String code) {
 
         //入力値がなければエラーメッセージを返却
         if (code == null || code.equals("")) {
             return MessageConst.E_NOEMP_CODE.getMessage();
         }
 
-        if (codeDuplicateCheckFlag) {
-            //社員番号の重複チェックを実施
-
-            long employeesCount = isDuplicateEmployee(service, code);
-
-            //同一社員番号が既に登録されている場合はエラーメッセージを返却
-            if (employeesCount > 0) {
-                return MessageConst.E_EMP_CODE_EXIST.getMessage();
-            }
-        }
-
         //エラーがない場合は空文字を返却
         return "";
     }
 
-    /**
-     * @param service EmployeeServiceのインスタンス
-     * @param code 社員番号
-     * @return 従業員テーブルに登録されている同一社員番号のデータの件数
-     */
-    private static long isDuplicateEmployee(EmployeeService service, String code) {
-
-        long employeesCount = service.countByCode(code);
-        return employeesCount;
-    }
-
     /**
      * 氏名に入力値があるかをチェックし、入力値がなければエラーメッセージを返却
      * @param name 氏名
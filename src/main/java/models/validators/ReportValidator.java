@@ -18,21 +18,14 @@ import utils.DBUtil;
  * @param rv 日報インスタンス
  * @return エラーのリスト
  * @param service 呼び出し元Serviceクラスのインスタンス
- * @param report_dateDuplicateCheckFlag 日付の重複チェックを実施するかどうか(実施する:true 実施しない:false)
+ * (同じ従業員の日付の重複は、登録・更新時に一意制約で確認する)
  */
 
 public class ReportValidator {
 
-    public static List<String> validate(ReportView id,ReportView ra,ReportView rb,EmployeeView ev,ReportView rv,ReportService service, Boolean report_dateDuplicateCheckFlag) {
+    public static List<String> validate(ReportView ra,ReportView rb,EmployeeView ev,ReportView rv,ReportService service) {
         List<String> errors = new ArrayList<String>();
 
-        //日付のチェック
-        String report_dateError = validatereport_Date(id,service, rv.getReportDate(), report_dateDuplicateCheckFlag);
-        if (!report_dateError.equals("")) {
-            errors.add(report_dateError);
-        }
-
-
         //タイトルのチェック
         String titleError = validateTitle(rv.getTitle());
         if (!titleError.equals("")) {
@@ -68,41 +61,6 @@ public class ReportValidator {
 
 
 
-    /**
-     * 日付の入力チェックを行い、エラーメッセージを返却
-     * @param service ReportServiceのインスタンス
-     * @param date 日付
-     * @param dateDuplicateCheckFlag 日付の重複チェックを実施するかどうか(実施する:true 実施しない:false)
-     * @return エラーメッセージ
-     */
-    private static String validatereport_Date(ReportView id,ReportService service, LocalDate report_date,Boolean report_dateDuplicateCheckFlag) {
-
-        if (report_dateDuplicateCheckFlag) {
-            //日付の重複チェックを実施
-
-            long reportCount = isReport_Date(service, report_date);
-
-            //同一日付が既に登録されている場合はエラーメッセージを返却
-            if (reportCount > 0) {
-                return MessageConst.E_REP_DATE_EXIST.getMessage();
-            }
-        }
-
-        //エラーがない場合は空文字を返却
-        return "";
-    }
-
-    /**
-     * @param service EmployeeServiceのインスタンス
-     * @param report_date 日付
-     * @return 日報テーブルに登録されている同一日付のデータの件数
-     */
-    private static long isReport_Date(ReportService service, LocalDate report_date) {
-
-        long reportCount = service.countByreport_Date(report_date);
-        return reportCount;
-    }
-
     /**
      * タイトルに入力値があるかをチェックし、入力値がなければエラーメッセージを返却
      * @param title タイトル
@@ -1,13 +1,16 @@
 package services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-
-import javax.persistence.NoResultException;
+import java.util.Objects;
+import java.util.Optional;
 
 import actions.views.EmployeeConverter;
+import actions.views.EmployeeSummaryView;
 import actions.views.EmployeeView;
 import constants.JpaConst;
+import constants.MessageConst;
 import models.Employee;
 import models.validators.EmployeeValidator;
 import utils.EncryptUtil;
@@ -18,17 +21,46 @@ import utils.EncryptUtil;
 public class EmployeeService extends ServiceBase {
 
     /**
-     * 指定されたページ数の一覧画面に表示するデータを取得し、EmployeeViewのリストで返却する
+     * 指定されたページ数の一覧画面に表示するデータを取得し、変更不可のEmployeeSummaryViewのリストで返却する
      * @param page ページ数
      * @return 表示するデータのリスト
      */
-    public List<EmployeeView> getPerPage(int page) {
-        List<Employee> employees = em.createNamedQuery(JpaConst.Q_EMP_GET_ALL, Employee.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
+    public List<EmployeeSummaryView> getPerPage(int page) {
+        return getPerPage(page, JpaConst.ROW_PER_PAGE);
+    }
 
-        return EmployeeConverter.toViewList(employees);
+    /**
+     * 指定されたページ数・表示件数分の従業員データを取得し、変更不可のEmployeeSummaryViewのリストで返却する
+     * @param page ページ数
+     * @param perPage 1ページに表示するレコードの数
+     * @return 表示するデータのリスト
+     */
+    public List<EmployeeSummaryView> getPerPage(int page, int perPage) {
+        return coalesce(() -> {
+            List<Employee> employees = createReadOnlyQuery(JpaConst.Q_EMP_GET_ALL, Employee.class)
+                    .setFirstResult(perPage * (page - 1))
+                    .setMaxResults(perPage)
+                    .getResultList();
+
+            return EmployeeConverter.toSummaryList(employees);
+        }, JpaConst.Q_EMP_GET_ALL, page, perPage);
+    }
+
+    /**
+     * カーソル(前ページの最後の従業員のid)より後ろの従業員データを表示件数分取得し、変更不可のEmployeeSummaryViewのリストで返却する
+     * @param cursor 前ページの最後の従業員のid
+     * @param perPage 1ページに表示するレコードの数
+     * @return 表示するデータのリスト
+     */
+    public List<EmployeeSummaryView> getAfter(int cursor, int perPage) {
+        return coalesce(() -> {
+            List<Employee> employees = createReadOnlyQuery(JpaConst.Q_EMP_GET_ALL_AFTER, Employee.class)
+                    .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                    .setMaxResults(perPage)
+                    .getResultList();
+
+            return EmployeeConverter.toSummaryList(employees);
+        }, JpaConst.Q_EMP_GET_ALL_AFTER, cursor, perPage);
     }
 
     /**
@@ -36,10 +68,12 @@ public class EmployeeService extends ServiceBase {
      * @return 従業員テーブルのデータの件数
      */
     public long countAll() {
-        long empCount = (long) em.createNamedQuery(JpaConst.Q_EMP_COUNT, Long.class)
-                .getSingleResult();
+        return coalesce(() -> {
+            long empCount = (long) readEm().createNamedQuery(JpaConst.Q_EMP_COUNT, Long.class)
+                    .getSingleResult();
 
-        return empCount;
+            return empCount;
+        }, JpaConst.Q_EMP_COUNT);
     }
 
     /**
@@ -47,51 +81,34 @@ public class EmployeeService extends ServiceBase {
      * @param code 社員番号
      * @param plainPass パスワード文字列
      * @param pepper pepper文字列
-     * @return 取得データのインスタンス 取得できない場合null
+     * @return 取得データのインスタンス(社員番号・パスワードが未入力の場合や、取得できない場合は空)
      */
-    public EmployeeView findOne(String code, String plainPass, String pepper) {
-        Employee e = null;
-        try {
-            //パスワードのハッシュ化
-            String pass = EncryptUtil.getPasswordEncrypt(plainPass, pepper);
-
-            //社員番号とハッシュ化済パスワードを条件に未削除の従業員を1件取得する
-            e = em.createNamedQuery(JpaConst.Q_EMP_GET_BY_CODE_AND_PASS, Employee.class)
-                    .setParameter(JpaConst.JPQL_PARM_CODE, code)
-                    .setParameter(JpaConst.JPQL_PARM_PASSWORD, pass)
-                    .getSingleResult();
-
-        } catch (NoResultException ex) {
+    public Optional<EmployeeView> findByCodeAndPassword(String code, String plainPass, String pepper) {
+        if (code == null || code.equals("") || plainPass == null || plainPass.equals("")) {
+            return Optional.empty();
         }
 
-        return EmployeeConverter.toView(e);
+        //パスワードのハッシュ化
+        String pass = EncryptUtil.getPasswordEncrypt(plainPass, pepper);
 
+        //社員番号とハッシュ化済パスワードを条件に未削除の従業員を1件取得する
+        return findFirst(createReadOnlyQuery(JpaConst.Q_EMP_GET_BY_CODE_AND_PASS, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_CODE, code)
+                .setParameter(JpaConst.JPQL_PARM_PASSWORD, pass))
+                .map(EmployeeConverter::toView);
     }
 
     /**
      * idを条件に取得したデータをEmployeeViewのインスタンスで返却する
+     * (読み取り専用で取得し、レプリカで参照できる場合はレプリカから取得する 更新処理では使用しないこと)
      * @param id
      * @return 取得データのインスタンス
      */
     public EmployeeView findOne(int id) {
-        Employee e = findOneInternal(id);
+        Employee e = findReadOnly(Employee.class, id);
         return EmployeeConverter.toView(e);
     }
 
-    /**
-     * 社員番号を条件に該当するデータの件数を取得し、返却する
-     * @param code 社員番号
-     * @return 該当するデータの件数
-     */
-    public long countByCode(String code) {
-
-        //指定した社員番号を保持する従業員の件数を取得する
-        long employees_count = (long) em.createNamedQuery(JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE, Long.class)
-                .setParameter(JpaConst.JPQL_PARM_CODE, code)
-                .getSingleResult();
-        return employees_count;
-    }
-
     /**
      * 画面から入力された従業員の登録内容を元にデータを1件作成し、従業員テーブルに登録する
      * @param ev 画面から入力された従業員の登録内容
@@ -109,12 +126,15 @@ public class EmployeeService extends ServiceBase {
         ev.setCreatedAt(now);
         ev.setUpdatedAt(now);
 
-        //登録内容のバリデーションを行う
-        List<String> errors = EmployeeValidator.validate(this, ev, true, true);
+        //登録内容のバリデーションを行う(社員番号の重複は登録時に一意制約で確認する)
+        List<String> errors = EmployeeValidator.validate(ev, true);
 
         //バリデーションエラーがなければデータを登録する
         if (errors.size() == 0) {
-            create(ev);
+            String createError = create(ev);
+            if (!createError.equals("")) {
+                errors.add(createError);
+            }
         }
 
         //エラーを返却（エラーがなければ0件の空リスト）
@@ -129,16 +149,20 @@ public class EmployeeService extends ServiceBase {
      */
     public List<String> update(EmployeeView ev, String pepper) {
 
-        //idを条件に登録済みの従業員情報を取得する
-        EmployeeView savedEmp = findOne(ev.getId());
+        //idを条件に登録済みの従業員情報をプライマリから取得する(バージョンの比較にレプリカの古い値を使用しない)
+        EmployeeView savedEmp = EmployeeConverter.toView(findOneInternal(ev.getId()));
+
+        //編集画面を表示した後に他のユーザーが更新していた場合はエラー
+        if (!Objects.equals(savedEmp.getVersion(), ev.getVersion())) {
+            List<String> errors = new ArrayList<String>();
+            errors.add(MessageConst.E_CONFLICT.getMessage());
+            return errors;
+        }
 
-        boolean validateCode = false;
         if (!savedEmp.getCode().equals(ev.getCode())) {
             //社員番号を更新する場合
 
-            //社員番号についてのバリデーションを行う
-            validateCode = true;
-            //変更後の社員番号を設定する
+            //変更後の社員番号を設定する(重複は更新時に一意制約で確認する)
             savedEmp.setCode(ev.getCode());
         }
 
@@ -162,11 +186,14 @@ public class EmployeeService extends ServiceBase {
         savedEmp.setUpdatedAt(today);
 
         //更新内容についてバリデーションを行う
-        List<String> errors = EmployeeValidator.validate(this, savedEmp, validateCode, validatePass);
+        List<String> errors = EmployeeValidator.validate(savedEmp, validatePass);
 
         //バリデーションエラーがなければデータを更新する
         if (errors.size() == 0) {
-            update(savedEmp);
+            String updateError = update(savedEmp);
+            if (!updateError.equals("")) {
+                errors.add(updateError);
+            }
         }
 
         //エラーを返却（エラーがなければ0件の空リスト）
@@ -179,8 +206,8 @@ public class EmployeeService extends ServiceBase {
      */
     public void destroy(Integer id) {
 
-        //idを条件に登録済みの従業員情報を取得する
-        EmployeeView savedEmp = findOne(id);
+        //idを条件に登録済みの従業員情報をプライマリから取得する
+        EmployeeView savedEmp = EmployeeConverter.toView(findOneInternal(id));
 
         //更新日時に現在時刻を設定する
         LocalDateTime today = LocalDateTime.now();
@@ -203,55 +230,54 @@ public class EmployeeService extends ServiceBase {
      */
     public Boolean validateLogin(String code, String plainPass, String pepper) {
 
-        boolean isValidEmployee = false;
-        if (code != null && !code.equals("") && plainPass != null && !plainPass.equals("")) {
-            EmployeeView ev = findOne(code, plainPass, pepper);
-
-            if (ev != null && ev.getId() != null) {
-
-                //データが取得できた場合、認証成功
-                isValidEmployee = true;
-            }
-        }
-
-        //認証結果を返却する
-        return isValidEmployee;
+        //データが取得できた場合、認証成功
+        return findByCodeAndPassword(code, plainPass, pepper).isPresent();
     }
 
     /**
-     * idを条件にデータを1件取得し、Employeeのインスタンスで返却する
+     * idを条件に更新対象のデータをプライマリから1件取得し、Employeeのインスタンスで返却する
+     * (同じリクエスト内では、EntityManagerが保持するインスタンスが返却され、SELECT文は1回のみ発行される)
      * @param id
      * @return 取得データのインスタンス
      */
     private Employee findOneInternal(int id) {
-        Employee e = em.find(Employee.class, id);
+        Employee e = findModifiable(Employee.class, id);
 
         return e;
     }
 
     /**
      * 従業員データを1件登録する
+     * 日報を分割して格納している場合は、登録した従業員を全てのシャードに書き込む
      * @param ev 従業員データ
-     * @return 登録結果(成功:true 失敗:false)
+     * @return エラーメッセージ(社員番号が登録済みの場合 エラーがない場合は空文字)
      */
-    private void create(EmployeeView ev) {
+    private String create(EmployeeView ev) {
 
-        em.getTransaction().begin();
-        em.persist(EmployeeConverter.toModel(ev));
-        em.getTransaction().commit();
+        Employee e = EmployeeConverter.toModel(ev);
+        String error = executeInTransaction(() -> em.persist(e));
+        if (error.equals("")) {
+            replicateToShards(EmployeeConverter.toModel(EmployeeConverter.toView(e)));
+        }
+        return error;
 
     }
 
     /**
      * 従業員データを更新する
+     * UPDATE文はidとバージョンを条件に発行される(他のユーザーが更新済みの場合はロールバックされる)
+     * 日報を分割して格納している場合は、更新した従業員を全てのシャードに書き込む
      * @param ev 画面から入力された従業員の登録内容
+     * @return エラーメッセージ(他のユーザーが更新済み、または社員番号が重複する場合 エラーがない場合は空文字)
      */
-    private void update(EmployeeView ev) {
+    private String update(EmployeeView ev) {
 
-        em.getTransaction().begin();
         Employee e = findOneInternal(ev.getId());
-        EmployeeConverter.copyViewToModel(e, ev);
-        em.getTransaction().commit();
+        String error = executeInTransaction(() -> EmployeeConverter.copyViewToModel(e, ev));
+        if (error.equals("")) {
+            replicateToShards(EmployeeConverter.toModel(EmployeeConverter.toView(e)));
+        }
+        return error;
 
     }
 
@@ -0,0 +1,200 @@
+package services;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManager;
+
+import constants.JpaConst;
+import models.Heartbeat;
+import utils.DBUtil;
+
+/**
+ * 読み取り専用の参照処理をレプリカで行うかどうかを判定するクラス
+ *
+ * 以下の場合は参照処理をプライマリで行う
+ *  ・登録・更新のリクエスト、および同じセッションで登録・更新を行ってから一定時間内のリクエスト(登録・更新した内容を参照するため)
+ *  ・レプリカの遅延が上限を超えている場合、または遅延を計測できない場合
+ * レプリカの遅延は、プライマリに定期的に書き込んだ時刻(ハートビート)がレプリカに反映されるまでの時間で計測する
+ * (登録・更新後にプライマリで参照する時間を遅延の上限以上とすることで、登録・更新した内容が画面に表示されることを保証する)
+ */
+public class ReplicaRouter implements ReplicaRouterMXBean {
+
+    private static final ReplicaRouter INSTANCE = new ReplicaRouter();
+
+    /**
+     * 登録・更新後、同じセッションの参照処理をプライマリで行う時間(ミリ秒)
+     */
+    private final long stickyMillis = Long.getLong(JpaConst.DB_REPLICA_STICKY_KEY, JpaConst.DB_REPLICA_STICKY_DEFAULT);
+
+    /**
+     * レプリカの遅延の上限(ミリ秒 負の値は上限なし)
+     */
+    private final long maxLagMillis = Long.getLong(JpaConst.DB_REPLICA_MAX_LAG_KEY, JpaConst.DB_REPLICA_MAX_LAG_DEFAULT);
+
+    /**
+     * 直近に計測したレプリカの遅延(ミリ秒 計測するまでは上限を超えているものとする)
+     */
+    private volatile long lagMillis = Long.MAX_VALUE;
+
+    /**
+     * 直近にプライマリに書き込んだハートビートの時刻(書き込む前は、レプリカの時刻から遅延を計測する)
+     */
+    private long lastBeatAt = Long.MAX_VALUE;
+
+    /**
+     * ハートビートの書き込み・遅延の計測を行うスレッド(開始前はnull)
+     */
+    private ScheduledExecutorService monitor;
+
+    //計測値
+    private final LongAdder replicaRequests = new LongAdder();
+    private final LongAdder pinnedRequests = new LongAdder();
+    private final LongAdder lagFallbackRequests = new LongAdder();
+
+    private ReplicaRouter() {
+    }
+
+    public static ReplicaRouter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * レプリカの接続先が指定されている場合、レプリカの遅延の計測を開始し、計測値をJMXに公開する
+     * @throws JMException
+     */
+    public synchronized void start() throws JMException {
+        if (!DBUtil.hasReplica() || monitor != null) {
+            return;
+        }
+
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-replica-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        monitor.scheduleWithFixedDelay(this::beat, 0, JpaConst.DB_REPLICA_HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(JpaConst.REPLICA_MBEAN_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(this, name);
+        }
+    }
+
+    /**
+     * レプリカの遅延の計測を終了する
+     */
+    public synchronized void shutdown() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+            monitor = null;
+        }
+    }
+
+    /**
+     * 登録・更新を行った時刻から、参照処理をプライマリで行う時間内かどうかを判定する
+     * @param lastWriteAt 登録・更新を行った時刻(エポックミリ秒)
+     * @return true: プライマリで参照する false: レプリカで参照できる
+     */
+    public boolean isSticky(long lastWriteAt) {
+        return DBUtil.hasReplica() && System.currentTimeMillis() - lastWriteAt < stickyMillis;
+    }
+
+    /**
+     * 参照処理の接続先を判定する(リクエスト毎に1回判定する)
+     * @param pinned 登録・更新のリクエスト、または登録・更新後の一定時間内の場合はtrue
+     * @return true: レプリカで参照する false: プライマリで参照する
+     */
+    boolean routeToReplica(boolean pinned) {
+        if (pinned) {
+            pinnedRequests.increment();
+            return false;
+        }
+        if (maxLagMillis >= 0 && lagMillis > maxLagMillis) {
+            lagFallbackRequests.increment();
+            return false;
+        }
+        replicaRequests.increment();
+        return true;
+    }
+
+    /**
+     * レプリカに反映されたハートビートから遅延を計測し、プライマリに次のハートビートを書き込む
+     */
+    private void beat() {
+        long now = System.currentTimeMillis();
+
+        //レプリカに反映済みの時刻が直近に書き込んだ時刻より前の場合、その次に書き込んだ時点から遅延しているものとする
+        EntityManager replica = DBUtil.createReplicaEntityManager();
+        try {
+            Heartbeat h = replica.find(Heartbeat.class, JpaConst.HEARTBEAT_ID);
+            if (h == null) {
+                lagMillis = Long.MAX_VALUE;
+            } else if (h.getBeatAt() >= lastBeatAt) {
+                lagMillis = 0;
+            } else {
+                lagMillis = Math.max(0, now - h.getBeatAt() - JpaConst.DB_REPLICA_HEARTBEAT_INTERVAL);
+            }
+        } catch (RuntimeException e) {
+            lagMillis = Long.MAX_VALUE;
+        } finally {
+            replica.close();
+        }
+
+        EntityManager primary = DBUtil.createEntityManager();
+        try {
+            primary.getTransaction().begin();
+            Heartbeat h = primary.find(Heartbeat.class, JpaConst.HEARTBEAT_ID);
+            if (h == null) {
+                primary.persist(new Heartbeat(JpaConst.HEARTBEAT_ID, now));
+            } else {
+                h.setBeatAt(now);
+            }
+            primary.getTransaction().commit();
+            lastBeatAt = now;
+        } catch (RuntimeException e) {
+            if (primary.getTransaction().isActive()) {
+                primary.getTransaction().rollback();
+            }
+        } finally {
+            primary.close();
+        }
+    }
+
+    @Override
+    public long getReplicaRequests() {
+        return replicaRequests.sum();
+    }
+
+    @Override
+    public long getPinnedRequests() {
+        return pinnedRequests.sum();
+    }
+
+    @Override
+    public long getLagFallbackRequests() {
+        return lagFallbackRequests.sum();
+    }
+
+    @Override
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    @Override
+    public long getStickyMillis() {
+        return stickyMillis;
+    }
+}
@@ -0,0 +1,38 @@
+package services;
+
+/**
+ * 参照処理の接続先の切り替え(レプリカ/プライマリ)の計測値をJMXで公開するインターフェース
+ * (MBean名: constants.JpaConst.REPLICA_MBEAN_NAME jconsole等から参照する)
+ */
+public interface ReplicaRouterMXBean {
+
+    /**
+     * @return 参照処理をレプリカで行ったリクエストの数
+     */
+    long getReplicaRequests();
+
+    /**
+     * @return 登録・更新のリクエスト、または登録・更新後の一定時間内のため、参照処理をプライマリで行ったリクエストの数
+     */
+    long getPinnedRequests();
+
+    /**
+     * @return レプリカの遅延が上限を超えていたため、参照処理をプライマリで行ったリクエストの数
+     */
+    long getLagFallbackRequests();
+
+    /**
+     * @return 直近に計測したレプリカの遅延(ミリ秒 計測できない場合はLong.MAX_VALUE)
+     */
+    long getLagMillis();
+
+    /**
+     * @return レプリカの遅延の上限(ミリ秒 負の値は上限なし)
+     */
+    long getMaxLagMillis();
+
+    /**
+     * @return 登録・更新後、同じセッションの参照処理をプライマリで行う時間(ミリ秒)
+     */
+    long getStickyMillis();
+}
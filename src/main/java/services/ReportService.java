@@ -2,15 +2,25 @@ package services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
 
 import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
 import actions.views.ReportConverter;
+import actions.views.ReportSummaryView;
 import actions.views.ReportView;
 import constants.JpaConst;
+import constants.MessageConst;
+import models.Employee;
 import models.Report;
 import models.validators.ReportValidator;
+import utils.DBUtil;
+import utils.ReportArchive;
 
 
 
@@ -20,19 +30,50 @@ import models.validators.ReportValidator;
 public class ReportService extends ServiceBase {
 
     /**
-     * 指定した従業員が作成した日報データを、指定されたページ数の一覧画面に表示する分取得しReportViewのリストで返却する
+     * 指定した従業員が作成した日報データを、指定されたページ数の一覧画面に表示する分取得し変更不可のReportSummaryViewのリストで返却する
+     * @param employee 従業員
+     * @param page ページ数
+     * @return 一覧画面に表示するデータのリスト
+     */
+    public List<ReportSummaryView> getMinePerPage(EmployeeView employee, int page) {
+        return getMinePerPage(employee, page, JpaConst.ROW_PER_PAGE);
+    }
+
+    /**
+     * 指定した従業員が作成した日報データを、指定されたページ数・表示件数分取得し変更不可のReportSummaryViewのリストで返却する
      * @param employee 従業員
      * @param page ページ数
+     * @param perPage 1ページに表示するレコードの数
+     * @return 一覧画面に表示するデータのリスト
+     */
+    public List<ReportSummaryView> getMinePerPage(EmployeeView employee, int page, int perPage) {
+        return coalesce(() -> {
+            List<Report> reports = createReadOnlyQuery(readerOf(employee), JpaConst.Q_REP_GET_ALL_MINE, Report.class, JpaConst.REP_GRAPH_WITH_EMP)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                    .setFirstResult(perPage * (page - 1))
+                    .setMaxResults(perPage)
+                    .getResultList();
+            return ReportConverter.toSummaryList(reports);
+        }, JpaConst.Q_REP_GET_ALL_MINE, employee.getId(), page, perPage);
+    }
+
+    /**
+     * 指定した従業員が作成した日報データのうち、カーソル(前ページの最後の日報のid)より後ろの日報を
+     * 表示件数分取得し変更不可のReportSummaryViewのリストで返却する(OFFSETを使用しないため、後ろのページでも取得件数が増えない)
+     * @param employee 従業員
+     * @param cursor 前ページの最後の日報のid
+     * @param perPage 1ページに表示するレコードの数
      * @return 一覧画面に表示するデータのリスト
      */
-    public List<ReportView> getMinePerPage(EmployeeView employee, int page) {
-
-        List<Report> reports = em.createNamedQuery(JpaConst.Q_REP_GET_ALL_MINE, Report.class)
-                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
-        return ReportConverter.toViewList(reports);
+    public List<ReportSummaryView> getMineAfter(EmployeeView employee, int cursor, int perPage) {
+        return coalesce(() -> {
+            List<Report> reports = createReadOnlyQuery(readerOf(employee), JpaConst.Q_REP_GET_ALL_MINE_AFTER, Report.class, JpaConst.REP_GRAPH_WITH_EMP)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                    .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                    .setMaxResults(perPage)
+                    .getResultList();
+            return ReportConverter.toSummaryList(reports);
+        }, JpaConst.Q_REP_GET_ALL_MINE_AFTER, employee.getId(), cursor, perPage);
     }
 
     /**
@@ -41,27 +82,66 @@ public class ReportService extends ServiceBase {
      * @return 日報データの件数
      */
     public long countAllMine(EmployeeView employee) {
+        return coalesce(() -> {
+            long count = (long) readerOf(employee).createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE, Long.class)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                    .getSingleResult();
 
-        long count = (long) em.createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE, Long.class)
-                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
-                .getSingleResult();
-
-        return count;
+            return count;
+        }, JpaConst.Q_REP_COUNT_ALL_MINE, employee.getId());
     }
 
 
     /**
-     * 指定されたページ数の一覧画面に表示する日報データを取得し、ReportViewのリストで返却する
+     * 指定されたページ数の一覧画面に表示する日報データを取得し、変更不可のReportSummaryViewのリストで返却する
      * @param page ページ数
      * @return 一覧画面に表示するデータのリスト
      */
-    public List<ReportView> getAllPerPage(int page) {
+    public List<ReportSummaryView> getAllPerPage(int page) {
+        return getAllPerPage(page, JpaConst.ROW_PER_PAGE);
+    }
 
-        List<Report> reports = em.createNamedQuery(JpaConst.Q_REP_GET_ALL, Report.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
-        return ReportConverter.toViewList(reports);
+    /**
+     * 指定されたページ数・表示件数分の日報データを取得し、変更不可のReportSummaryViewのリストで返却する
+     * 日報を分割して格納している場合は、各シャードから先頭からページの末尾までの日報を取得し、idの降順にマージする
+     * @param page ページ数
+     * @param perPage 1ページに表示するレコードの数
+     * @return 一覧画面に表示するデータのリスト
+     */
+    public List<ReportSummaryView> getAllPerPage(int page, int perPage) {
+        return coalesce(() -> {
+            int offset = perPage * (page - 1);
+            if (!isSharded()) {
+                List<Report> reports = createReadOnlyQuery(JpaConst.Q_REP_GET_ALL, Report.class, JpaConst.REP_GRAPH_WITH_EMP)
+                        .setFirstResult(offset)
+                        .setMaxResults(perPage)
+                        .getResultList();
+                return ReportConverter.toSummaryList(reports);
+            }
+
+            List<List<Report>> shardReports = scatter(reader -> createReadOnlyQuery(reader, JpaConst.Q_REP_GET_ALL, Report.class, JpaConst.REP_GRAPH_WITH_EMP)
+                    .setMaxResults(offset + perPage)
+                    .getResultList());
+            return ReportConverter.toSummaryList(mergeByIdDesc(shardReports, Report::getId, offset, perPage));
+        }, JpaConst.Q_REP_GET_ALL, page, perPage);
+    }
+
+    /**
+     * カーソル(前ページの最後の日報のid)より後ろの日報データを表示件数分取得し、変更不可のReportSummaryViewのリストで返却する
+     * (OFFSETを使用しないため、後ろのページでも取得件数が増えない)
+     * @param cursor 前ページの最後の日報のid
+     * @param perPage 1ページに表示するレコードの数
+     * @return 一覧画面に表示するデータのリスト
+     */
+    public List<ReportSummaryView> getAllAfter(int cursor, int perPage) {
+        return coalesce(() -> {
+            //日報を分割して格納している場合は、各シャードから表示件数分を取得し、idの降順にマージする
+            List<List<Report>> shardReports = scatter(reader -> createReadOnlyQuery(reader, JpaConst.Q_REP_GET_ALL_AFTER, Report.class, JpaConst.REP_GRAPH_WITH_EMP)
+                    .setParameter(JpaConst.JPQL_PARM_CURSOR, cursor)
+                    .setMaxResults(perPage)
+                    .getResultList());
+            return ReportConverter.toSummaryList(mergeByIdDesc(shardReports, Report::getId, 0, perPage));
+        }, JpaConst.Q_REP_GET_ALL_AFTER, cursor, perPage);
     }
 
     /**
@@ -69,9 +149,14 @@ public class ReportService extends ServiceBase {
      * @return データの件数
      */
     public long countAll() {
-        long reports_count = (long) em.createNamedQuery(JpaConst.Q_REP_COUNT, Long.class)
-                .getSingleResult();
-        return reports_count;
+        return coalesce(() -> {
+            //日報を分割して格納している場合は、各シャードの件数を合計する
+            long reports_count = 0;
+            for (long count : scatter(reader -> reader.createNamedQuery(JpaConst.Q_REP_COUNT, Long.class).getSingleResult())) {
+                reports_count += count;
+            }
+            return reports_count;
+        }, JpaConst.Q_REP_COUNT);
     }
 
     /**
@@ -87,50 +172,48 @@ public class ReportService extends ServiceBase {
 
     /**
      * idを条件に取得したデータをReportViewのインスタンスで返却する
+     * 日報テーブルにない場合は、アーカイブした日報を取得する(作成者の従業員は従業員テーブルから取得する)
      * @param id
      * @return 取得データのインスタンス
      */
     public ReportView findOne(int id) {
-        return ReportConverter.toView(findOneInternal(id));
+        Report r = findReadOnly(shardReadEm(DBUtil.shardOf(id)), Report.class, id, JpaConst.REP_GRAPH_WITH_EMP);
+
+        if (r == null) {
+            r = ReportArchive.getInstance().findById(id).orElse(null);
+            if (r != null) {
+                r.setEmployee(findReadOnly(Employee.class, r.getEmployee().getId()));
+            }
+        }
+        return ReportConverter.toView(r);
     }
 
 
     /**
      * 画面から入力された日報の登録内容を元にデータを1件作成し、日報テーブルに登録する
+     * 同じ従業員の同じ日付の日報は一意制約により登録できない(事前に件数を確認せず、登録時にエラーとする)
+     * アーカイブした日報は一意制約の対象外のため、登録前にアーカイブを確認する
      * @param rv 日報の登録内容
      * @return バリデーションで発生したエラーのリスト
      */
-    public List<String> create(ReportView id,ReportView ra,ReportView rb,EmployeeView ev,ReportService service,ReportView rv,LocalDateTime clock_in,LocalDateTime clock_out) {
-
-
-        //登録済みの日付を取得する
-       ReportView savedreport_date = countByreport_Id(rv.getReportDate());
-
-        boolean isReport_Date = false;
+    public List<String> create(ReportView ra,ReportView rb,EmployeeView ev,ReportService service,ReportView rv,LocalDateTime clock_in,LocalDateTime clock_out) {
 
-      if(id!=null) {
+        //日付の重複は登録時に一意制約で確認するため、バリデーションでは確認しない
+        List<String> errors = ReportValidator.validate(ra,rb,ev,rv,this);
 
-          //日付と従業員IDのチェック
-          if (!ev.getId().equals(id.getEmployee().getId())){
-
-             if(savedreport_date.getReportDate().equals(rv.getReportDate())){
-
-
-              //バリデーションを行わない
-              isReport_Date = false;
-              }
-           }
-
-          else{isReport_Date = true;
-          }
-      }
-        List<String> errors = ReportValidator.validate(id,ra,rb,ev,rv,this, isReport_Date);
+        if (errors.size() == 0 && isArchivedDuplicate(rv)) {
+            errors.add(MessageConst.E_REP_DATE_EXIST.getMessage());
+        }
 
         if (errors.size() == 0) {
             LocalDateTime ldt = LocalDateTime.now();
             rv.setCreatedAt(ldt);
             rv.setUpdatedAt(ldt);
-            createInternal(rv);
+
+            String createError = createInternal(rv);
+            if (!createError.equals("")) {
+                errors.add(createError);
+            }
         }
 
         //バリデーションで発生したエラーを返却（エラーがなければ0件の空リスト）
@@ -139,44 +222,37 @@ public class ReportService extends ServiceBase {
 
     /**
      * 画面から入力された日報の登録内容を元に、日報データを更新する
+     * 同じ従業員の同じ日付の日報は一意制約により更新できない(事前に件数を確認せず、更新時にエラーとする)
+     * アーカイブした日報は一意制約の対象外のため、更新前にアーカイブを確認する
      * @param rv 日報の更新内容
      * @return バリデーションで発生したエラーのリスト
      */
-    public List<String> update(ReportView id,ReportView ra,ReportView rb,EmployeeView ev,ReportService service,ReportView rv,LocalDateTime clock_out,LocalDateTime clock_in) {
-
-
-        //登録済みの日付を取得する
-       ReportView savedreport_date = findOne(rv.getId());
-
-        boolean isReport_Date = false;
+    public List<String> update(ReportView ra,ReportView rb,EmployeeView ev,ReportService service,ReportView rv,LocalDateTime clock_out,LocalDateTime clock_in) {
 
-        if(id!=null) {
 
-        //日付と従業員IDのチェック
-        if (ev.getId().equals(id.getEmployee().getId())){
-
-           if(savedreport_date.getReportDate().equals(rv.getReportDate())){
-
-
-            //バリデーションを行わない
-            isReport_Date = false;
-            }
-           //データベースにすでに登録がある場合はtrue
-           else if (rv.getReportDate() != null && rv.getEmployee().getId()!= null) {
-
-               isReport_Date = true;
+        //登録済みの日報を取得する(取得済みのためEntityManagerが保持するインスタンスが返却され、SELECT文は発行されない)
+        Report saved = findOneInternal(rv.getId());
 
+        //アーカイブした日報(日報テーブルにない日報)は更新できない
+        if (saved == null) {
+            List<String> errors = new ArrayList<String>();
+            errors.add(MessageConst.E_ARCHIVED.getMessage());
+            return errors;
         }
-         }
 
-        }
-        else {
-            //変更後の日報を設定する
-            savedreport_date.setReportDate(rv.getReportDate());
+        //編集画面を表示した後に他のユーザーが更新していた場合はエラー
+        if (!Objects.equals(saved.getVersion(), rv.getVersion())) {
+            List<String> errors = new ArrayList<String>();
+            errors.add(MessageConst.E_CONFLICT.getMessage());
+            return errors;
         }
 
-        //更新内容についてバリデーションを行う
-        List<String> errors = ReportValidator.validate(id,ra,rb,ev,rv, this, isReport_Date);
+        //更新内容についてバリデーションを行う(日付の重複は更新時に一意制約で確認する)
+        List<String> errors = ReportValidator.validate(ra,rb,ev,rv, this);
+
+        if (errors.size() == 0 && isArchivedDuplicate(rv)) {
+            errors.add(MessageConst.E_REP_DATE_EXIST.getMessage());
+        }
 
         if (errors.size() == 0) {
 
@@ -184,7 +260,10 @@ public class ReportService extends ServiceBase {
             LocalDateTime ldt = LocalDateTime.now();
             rv.setUpdatedAt(ldt);
 
-            updateInternal(rv);
+            String updateError = updateInternal(saved, rv);
+            if (!updateError.equals("")) {
+                errors.add(updateError);
+            }
         }
 
         //バリデーションで発生したエラーを返却（エラーがなければ0件の空リスト）
@@ -223,98 +302,82 @@ public class ReportService extends ServiceBase {
     }
 
     /**
-     * 日付を条件に該当するデータの件数を取得し、返却する
-     * @param dete 日付
-     * @return 該当するデータの件数
+     * 指定した従業員が作成した、指定した日付の日報を1件取得し、返却する
+     * @param employee 従業員
+     * @param report_date 日付
+     * @return 取得データのインスタンス(該当する日報がない場合は空)
      */
-    public long countByreport_Date(LocalDate report_date) {
-
-        //指定した日付を保持する日報の件数を取得する
-        long reportcount = (long) em.createNamedQuery(JpaConst.Q_REP_COUNT_REGISTERED_BY_REP_DATE, Long.class)
-                .setParameter(JpaConst.JPQL_PARM_REP_DATE, report_date)
-                .getSingleResult();
-        return reportcount;
+    public Optional<ReportView> findByReportDate(EmployeeView employee, LocalDate report_date) {
+        return lookup(() -> findByReportDateInternal(employee, report_date), "findByReportDate", employee.getId(), report_date);
     }
 
     /**
-     * 日付を条件に該当するデータの件数を取得し、返却する
-     * @param dete 日付
-     * @return 該当するデータの件数
+     * findByReportDate の参照処理(同じリクエスト内では、同じ従業員・日付について1回のみ実行される)
      */
-    public ReportView countByreport_Id(LocalDate report_date) {
+    private Optional<ReportView> findByReportDateInternal(EmployeeView employee, LocalDate report_date) {
 
-        Report id = null;
-
-      //指定した日付を保持する日報を取得する
-        try {
-        id =  em.createNamedQuery(JpaConst.Q_REP_GET_REGISTERED_BY_REP_DATE, Report.class)
+        //指定した日付を保持する日報を取得する(作成者はidのみを使用するため、合わせて取得しない)
+        return findFirst(createReadOnlyQuery(readerOf(employee), JpaConst.Q_REP_GET_REGISTERED_BY_REP_DATE, Report.class)
                 .setParameter(JpaConst.JPQL_PARM_REP_DATE, report_date)
-                .setMaxResults(1)
-                .getSingleResult();
-
-
-        } catch (Exception e) {
-            return null;
-        }
-
-        return ReportConverter.toView(id);
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee)))
+                .map(ReportConverter::toView)
+                .or(() -> findArchived(employee, report_date));
     }
 
 
 
     //1日後
     /**
-     * 日付を条件に該当するデータの件数を取得し、返却する
-     * @param dete 日付
-     * @return 該当するデータの件数
+     * 指定した従業員が作成した、指定した日付の翌日の日報を1件取得し、返却する
+     * @param employee 従業員
+     * @param report_date 日付
+     * @return 取得データのインスタンス(該当する日報がない場合は空)
      */
-    public ReportView countByAfterDate(LocalDate report_date) {
+    public Optional<ReportView> findByAfterDate(EmployeeView employee, LocalDate report_date) {
+        return lookup(() -> findByAfterDateInternal(employee, report_date), "findByAfterDate", employee.getId(), report_date);
+    }
+
+    /**
+     * findByAfterDate の参照処理(同じリクエスト内では、同じ従業員・日付について1回のみ実行される)
+     */
+    private Optional<ReportView> findByAfterDateInternal(EmployeeView employee, LocalDate report_date) {
 
         LocalDate afterreport_date = report_date.plusDays(1);
-        Report ra = null;
 
-        //指定した日付を保持する日報を取得する
-        try {
-        ra =  em.createNamedQuery(JpaConst.Q_REP_GET_REGISTERED_BY_REP_AFTERDATE, Report.class)
+        //指定した日付を保持する日報を取得する(作成者はidのみを使用するため、合わせて取得しない)
+        return findFirst(createReadOnlyQuery(readerOf(employee), JpaConst.Q_REP_GET_REGISTERED_BY_REP_AFTERDATE, Report.class)
                 .setParameter(JpaConst.JPQL_PARM_REP_AFTERDATE, afterreport_date)
-                .setMaxResults(1)
-                .getSingleResult();
-
-
-        } catch (Exception e) {
-            return null;
-        }
-
-        return ReportConverter.toView(ra);
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee)))
+                .map(ReportConverter::toView)
+                .or(() -> findArchived(employee, afterreport_date));
     }
 
 
 
     //1日前
     /**
-     * 日付を条件に該当するデータの件数を取得し、返却する
-     * @param dete 日付
-     * @return 該当するデータの件数
+     * 指定した従業員が作成した、指定した日付の前日の日報を1件取得し、返却する
+     * @param employee 従業員
+     * @param report_date 日付
+     * @return 取得データのインスタンス(該当する日報がない場合は空)
      */
-    public ReportView countByBeforeDate(LocalDate report_date) {
+    public Optional<ReportView> findByBeforeDate(EmployeeView employee, LocalDate report_date) {
+        return lookup(() -> findByBeforeDateInternal(employee, report_date), "findByBeforeDate", employee.getId(), report_date);
+    }
 
-        LocalDate beforereport_date = report_date.minusDays(1);
-        Report rb = null;
+    /**
+     * findByBeforeDate の参照処理(同じリクエスト内では、同じ従業員・日付について1回のみ実行される)
+     */
+    private Optional<ReportView> findByBeforeDateInternal(EmployeeView employee, LocalDate report_date) {
 
-        //指定した日付を保持する日報を取得する
+        LocalDate beforereport_date = report_date.minusDays(1);
 
-        try {
-        rb =  em.createNamedQuery(JpaConst.Q_REP_GET_REGISTERED_BY_REP_BEFOREDATE, Report.class)
+        //指定した日付を保持する日報を取得する(作成者はidのみを使用するため、合わせて取得しない)
+        return findFirst(createReadOnlyQuery(readerOf(employee), JpaConst.Q_REP_GET_REGISTERED_BY_REP_BEFOREDATE, Report.class)
                 .setParameter(JpaConst.JPQL_PARM_REP_BEFOREDATE, beforereport_date)
-                .setMaxResults(1)
-                .getSingleResult();
-
-
-        } catch (Exception e) {
-            return null;
-        }
-
-        return ReportConverter.toView(rb);
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee)))
+                .map(ReportConverter::toView)
+                .or(() -> findArchived(employee, beforereport_date));
     }
 
 
@@ -330,12 +393,12 @@ public class ReportService extends ServiceBase {
     }
 
     /**
-     * idを条件にデータを1件取得する
+     * idを条件に更新対象のデータを1件取得する
      * @param id
      * @return 取得データのインスタンス
      */
     private Report findOneInternal(int id) {
-        return em.find(Report.class, id);
+        return findModifiable(shardEm(DBUtil.shardOf(id)), Report.class, id);
     }
 
 
@@ -344,29 +407,90 @@ public class ReportService extends ServiceBase {
     /**
      * 日報データを1件登録する
      * @param rv 日報データ
+     * @return エラーメッセージ(同じ従業員の同じ日付の日報が登録済みの場合 エラーがない場合は空文字)
      */
-    private void createInternal(ReportView rv) {
+    private String createInternal(ReportView rv) {
 
-        em.getTransaction().begin();
-        em.persist(ReportConverter.toModel(rv));
-        em.getTransaction().commit();
+        //作成した従業員のシャードに登録する
+        EntityManager target = shardEm(DBUtil.shardOf(rv.getEmployee().getId()));
+        return executeInTransaction(target, () -> target.persist(ReportConverter.toModel(rv)));
 
     }
 
     /**
      * 日報データを更新する
+     * UPDATE文はidとバージョンを条件に1回のみ発行される(他のユーザーが更新済みの場合は0件となりロールバックされる)
+     * @param r 登録済みの日報データ(EntityManagerで管理されているインスタンス)
      * @param rv 日報データ
+     * @return エラーメッセージ(他のユーザーが更新済み、日付が重複する、または従業員を別のシャードの従業員に変更する場合
+     *         エラーがない場合は空文字)
      */
-    private void updateInternal(ReportView rv) {
+    private String updateInternal(Report r, ReportView rv) {
+
+        //日報は作成した従業員のシャードに格納するため、別のシャードの従業員には変更できない
+        //(日報の行は移動しないため、変更後の従業員の日報一覧・件数に含まれなくなる)
+        Integer employeeId = rv.getEmployee() == null ? null : rv.getEmployee().getId();
+        if (employeeId != null && DBUtil.shardOf(employeeId) != DBUtil.shardOf(r.getId())) {
+            return MessageConst.E_SHARD_MOVE.getMessage();
+        }
+
+        EntityManager target = shardEm(DBUtil.shardOf(r.getId()));
+        return executeInTransaction(target, () -> {
+
+            //値が変更された項目のみを設定し、変更がある場合のみ更新日時を設定する
+            //(Report は @DynamicUpdate のため、UPDATE文には変更された項目のみが含まれる)
+            boolean changed = ReportConverter.copyChangedViewToModel(r, rv);
+
+            //日報を作成した従業員が変わる場合は、従業員をidの参照(プロキシ)で設定する
+            //(同じシャードの従業員のみ 従業員は全てのシャードに複製済み)
+            if (employeeId != null && !employeeId.equals(r.getEmployee().getId())) {
+                r.setEmployee(target.getReference(Employee.class, employeeId));
+                changed = true;
+            }
+
+            if (changed) {
+                r.setUpdatedAt(rv.getUpdatedAt());
+            }
+        });
+
+        }
 
-        em.getTransaction().begin();
-        Report r = findOneInternal(rv.getId());
-        ReportConverter.copyViewToModel(r, rv);
-        em.getTransaction().commit();
+    /**
+     * 指定した従業員が作成した、指定した日付の日報をアーカイブから取得する(日報テーブルにない場合に使用する)
+     * @param employee 従業員
+     * @param report_date 日付
+     * @return 取得データのインスタンス(該当する日報がない場合は空)
+     */
+    private Optional<ReportView> findArchived(EmployeeView employee, LocalDate report_date) {
+        return ReportArchive.getInstance().findByEmployeeAndDate(employee.getId(), report_date)
+                .map(ReportConverter::toView);
+    }
 
+    /**
+     * 同じ従業員の同じ日付の日報(別の日報)がアーカイブにあるかどうか
+     * (アーカイブした日報は日報テーブルから削除済みのため、一意制約では重複を検出できない)
+     * @param rv 登録・更新する日報
+     * @return アーカイブに重複する日報がある場合true
+     */
+    private boolean isArchivedDuplicate(ReportView rv) {
+        if (!ReportArchive.isEnabled() || rv.getEmployee() == null || rv.getReportDate() == null) {
+            return false;
         }
+        return ReportArchive.getInstance().findByEmployeeAndDate(rv.getEmployee().getId(), rv.getReportDate())
+                .filter(archived -> !archived.getId().equals(rv.getId()))
+                .isPresent();
+    }
+
+    /**
+     * 指定した従業員が作成した日報を参照するEntityManagerを取得する(従業員のシャードに接続する)
+     * @param employee 従業員
+     * @return EntityManager
+     */
+    private EntityManager readerOf(EmployeeView employee) {
+        return shardReadEm(DBUtil.shardOf(employee.getId()));
+    }
 
-  }
+}
 
 
 
@@ -1,7 +1,33 @@
 package services;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
 import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.QueryHints;
 
+import constants.JpaConst;
+import constants.MessageConst;
 import utils.DBUtil;
 
 /**
@@ -14,6 +40,495 @@ public class ServiceBase {
      */
     protected EntityManager em = DBUtil.createEntityManager();
 
+    /**
+     * レプリカに接続するEntityManagerインスタンス(レプリカで参照するまではnull)
+     */
+    private EntityManager replica;
+
+    /**
+     * シャード(日報を分割して格納するDB)に接続するEntityManagerインスタンス(シャードの番号をキーとする シャード0はem)
+     */
+    private final Map<Integer, EntityManager> shards = new HashMap<>();
+
+    /**
+     * 参照処理をプライマリで行うかどうか
+     */
+    private boolean readFromPrimary;
+
+    /**
+     * レプリカで参照するかどうか(最初の参照処理で判定し、同じリクエスト内では判定結果を使用する)
+     */
+    private Boolean useReplica;
+
+    /**
+     * 登録・更新のコミット後に行う処理
+     */
+    private Runnable afterCommit = () -> {
+    };
+
+    /**
+     * シャードへの書き込みに失敗した場合等のエラーの出力先
+     */
+    private Consumer<String> log = System.err::println;
+
+    /**
+     * 参照処理の結果(処理名と引数をキーとする)
+     * Serviceのインスタンスはリクエスト毎に生成されるため、同じリクエスト内でのみ共有される
+     */
+    private final Map<List<Object>, Object> lookups = new HashMap<>();
+
+    /**
+     * 同じリクエスト内で同じ処理名・引数の参照処理を実行済みの場合は、その結果を返却する
+     * 未実行の場合は参照処理を実行し、結果(nullを含む)を保持する
+     * 返却したインスタンスは同じリクエスト内で共有されるため、呼び出し元で変更しないこと
+     * 登録・更新(executeInTransaction)を行うと、保持した結果は破棄される
+     * @param loader 参照処理
+     * @param name 処理名
+     * @param args 引数(equalsで比較できる値)
+     * @return 参照処理の結果
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T lookup(Supplier<T> loader, String name, Object... args) {
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(name);
+        key.addAll(Arrays.asList(args));
+
+        if (lookups.containsKey(key)) {
+            return (T) lookups.get(key);
+        }
+
+        T result = loader.get();
+        lookups.put(key, result);
+        return result;
+    }
+
+    /**
+     * 他のリクエストで同じ参照処理(名前付きクエリと引数が同じもの)を実行中の場合は、その結果を共有する
+     * 実行中でない場合は参照処理を実行する(ログイン直後の一覧画面等、同時に同じ問い合わせが集中する処理で使用する)
+     * 結果は他のリクエストと共有されるため、参照処理は変更できない値を返却すること
+     * (件数等の値、またはCollections.unmodifiableListに格納した変更不可のViewモデル(ReportSummaryView等))
+     * @param loader 参照処理
+     * @param queryName 名前付きクエリ名
+     * @param args クエリの引数(equalsで比較できる値)
+     * @return 参照処理の結果
+     */
+    protected <T> T coalesce(Supplier<T> loader, String queryName, Object... args) {
+        //プライマリとレプリカの参照結果は共有しない
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(readEm() == em);
+        key.addAll(Arrays.asList(args));
+
+        return SingleFlight.getInstance().execute(loader, queryName, key.toArray());
+    }
+
+    /**
+     * 参照処理をプライマリで行うかどうかを設定する
+     * 登録・更新のリクエスト、および同じセッションで登録・更新を行ってから一定時間内のリクエストではtrueを設定する
+     * (falseの場合、レプリカの接続先が指定されていれば、遅延が上限以内の場合に限りレプリカで参照する)
+     * @param readFromPrimary true: プライマリで参照する false: レプリカで参照できる
+     */
+    public void setReadFromPrimary(boolean readFromPrimary) {
+        this.readFromPrimary = readFromPrimary;
+    }
+
+    /**
+     * 登録・更新のコミット後に行う処理を設定する(同じセッションの以降の参照処理をプライマリで行うための時刻の保持等)
+     * @param afterCommit コミット後に行う処理
+     */
+    public void setAfterCommit(Runnable afterCommit) {
+        this.afterCommit = afterCommit;
+    }
+
+    /**
+     * エラーの出力先を設定する(シャードへの書き込みに失敗し、プライマリとシャードの内容が異なる場合等)
+     * @param log エラーの出力先
+     */
+    public void setLog(Consumer<String> log) {
+        this.log = log;
+    }
+
+    /**
+     * 読み取り専用の参照処理を行うEntityManagerを取得する
+     * レプリカで参照できる場合はレプリカに、それ以外の場合はプライマリに接続する
+     * (接続先は最初の参照処理で判定する 同じリクエストで登録・更新を行った後はプライマリで参照する)
+     * @return EntityManager
+     */
+    protected EntityManager readEm() {
+        if (!DBUtil.hasReplica()) {
+            return em;
+        }
+        if (useReplica == null) {
+            useReplica = ReplicaRouter.getInstance().routeToReplica(readFromPrimary);
+        }
+        if (!useReplica || readFromPrimary) {
+            return em;
+        }
+
+        if (replica == null) {
+            replica = DBUtil.createReplicaEntityManager();
+        }
+        return replica;
+    }
+
+    /**
+     * 参照専用の名前付きクエリを作成する
+     * 取得したエンティティは読み取り専用となり、変更検知用のスナップショットを保持しない(コミット時の変更検知も行わない)
+     * 一覧・詳細画面など、取得したエンティティをViewモデルに変換するだけの処理で使用する
+     * @param name クエリ名
+     * @param resultClass 取得するエンティティのクラス
+     * @return クエリ
+     */
+    protected <T> TypedQuery<T> createReadOnlyQuery(String name, Class<T> resultClass) {
+        return createReadOnlyQuery(readEm(), name, resultClass);
+    }
+
+    /**
+     * 指定したEntityManager(シャード等)で参照専用の名前付きクエリを作成する
+     * @param reader 参照処理を行うEntityManager
+     * @param name クエリ名
+     * @param resultClass 取得するエンティティのクラス
+     * @return クエリ
+     */
+    protected <T> TypedQuery<T> createReadOnlyQuery(EntityManager reader, String name, Class<T> resultClass) {
+        return reader.createNamedQuery(name, resultClass)
+                .setHint(QueryHints.HINT_READONLY, true);
+    }
+
+    /**
+     * 参照専用の名前付きクエリを作成する(エンティティグラフに指定した関連を合わせて取得する)
+     * @param name クエリ名
+     * @param resultClass 取得するエンティティのクラス
+     * @param graphName エンティティグラフ名
+     * @return クエリ
+     */
+    protected <T> TypedQuery<T> createReadOnlyQuery(String name, Class<T> resultClass, String graphName) {
+        return createReadOnlyQuery(readEm(), name, resultClass, graphName);
+    }
+
+    /**
+     * 指定したEntityManager(シャード等)で参照専用の名前付きクエリを作成する(エンティティグラフに指定した関連を合わせて取得する)
+     * @param reader 参照処理を行うEntityManager
+     * @param name クエリ名
+     * @param resultClass 取得するエンティティのクラス
+     * @param graphName エンティティグラフ名
+     * @return クエリ
+     */
+    protected <T> TypedQuery<T> createReadOnlyQuery(EntityManager reader, String name, Class<T> resultClass,
+            String graphName) {
+        return createReadOnlyQuery(reader, name, resultClass)
+                .setHint(QueryHints.HINT_FETCHGRAPH, reader.getEntityGraph(graphName));
+    }
+
+    /**
+     * クエリの結果の先頭1件を取得する
+     * getSingleResult()と異なり、該当するデータがない場合も例外(NoResultException)を発生させない
+     * @param query クエリ
+     * @return 先頭1件(該当するデータがない場合は空)
+     */
+    protected static <T> Optional<T> findFirst(TypedQuery<T> query) {
+        List<T> results = query.setMaxResults(1).getResultList();
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * idを条件にエンティティを読み取り専用で1件取得する
+     * (関連するエンティティも読み取り専用で取得される)
+     * @param entityClass エンティティのクラス
+     * @param id id
+     * @return 取得データのインスタンス(取得できない場合はnull)
+     */
+    protected <T> T findReadOnly(Class<T> entityClass, Object id) {
+        return findReadOnly(readEm(), entityClass, id, Collections.emptyMap());
+    }
+
+    /**
+     * idを条件にエンティティを読み取り専用で1件取得する(エンティティグラフに指定した関連を合わせて取得する)
+     * @param entityClass エンティティのクラス
+     * @param id id
+     * @param graphName エンティティグラフ名
+     * @return 取得データのインスタンス(取得できない場合はnull)
+     */
+    protected <T> T findReadOnly(Class<T> entityClass, Object id, String graphName) {
+        return findReadOnly(readEm(), entityClass, id, graphName);
+    }
+
+    /**
+     * 指定したEntityManager(シャード等)で、idを条件にエンティティを読み取り専用で1件取得する(エンティティグラフに指定した関連を合わせて取得する)
+     * @param reader 参照処理を行うEntityManager
+     * @param entityClass エンティティのクラス
+     * @param id id
+     * @param graphName エンティティグラフ名
+     * @return 取得データのインスタンス(取得できない場合はnull)
+     */
+    protected <T> T findReadOnly(EntityManager reader, Class<T> entityClass, Object id, String graphName) {
+        return findReadOnly(reader, entityClass, id,
+                Collections.singletonMap(QueryHints.HINT_FETCHGRAPH, reader.getEntityGraph(graphName)));
+    }
+
+    /**
+     * idを条件にエンティティを読み取り専用で1件取得する
+     */
+    private <T> T findReadOnly(EntityManager reader, Class<T> entityClass, Object id, Map<String, Object> hints) {
+        Session session = reader.unwrap(Session.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+
+        session.setDefaultReadOnly(true);
+        try {
+            return reader.find(entityClass, id, hints);
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+
+    /**
+     * idを条件に更新対象のエンティティを1件取得する
+     * 同じリクエストで読み取り専用として取得済みの場合は、変更可能に切り替える(現在の状態がスナップショットとなる)
+     * @param entityClass エンティティのクラス
+     * @param id id
+     * @return 取得データのインスタンス(取得できない場合はnull)
+     */
+    protected <T> T findModifiable(Class<T> entityClass, Object id) {
+        return findModifiable(em, entityClass, id);
+    }
+
+    /**
+     * 指定したEntityManager(シャード等)で、idを条件に更新対象のエンティティを1件取得する
+     * @param target 登録・更新を行うEntityManager
+     * @param entityClass エンティティのクラス
+     * @param id id
+     * @return 取得データのインスタンス(取得できない場合はnull)
+     */
+    protected <T> T findModifiable(EntityManager target, Class<T> entityClass, Object id) {
+        T entity = target.find(entityClass, id);
+
+        Session session = target.unwrap(Session.class);
+        if (entity != null && session.isReadOnly(entity)) {
+            session.setReadOnly(entity, false);
+        }
+        return entity;
+    }
+
+    /**
+     * トランザクション内で指定した処理を行い、コミットする
+     * 以下の場合はロールバックし、エラーメッセージを返却する
+     *  ・他のユーザーによる更新(バージョンの不一致)を検出した場合
+     *  ・一意制約(社員番号、従業員毎の日報の日付)に違反した場合
+     * @param work トランザクション内で行う処理
+     * @return エラーメッセージ(エラーがない場合は空文字)
+     */
+    protected String executeInTransaction(Runnable work) {
+        return executeInTransaction(em, work);
+    }
+
+    /**
+     * 指定したEntityManager(シャード等)のトランザクション内で指定した処理を行い、コミットする
+     * @param target 登録・更新を行うEntityManager
+     * @param work トランザクション内で行う処理
+     * @return エラーメッセージ(エラーがない場合は空文字)
+     */
+    protected String executeInTransaction(EntityManager target, Runnable work) {
+        //登録・更新により参照結果が変わるため、保持している参照結果を破棄する
+        lookups.clear();
+
+        //処理中・コミット後の参照処理が、コミット前に開始した他のリクエストの参照結果を共有しないようにする
+        SingleFlight.getInstance().beginWrite();
+        try {
+            target.getTransaction().begin();
+            work.run();
+            target.getTransaction().commit();
+
+            //同じリクエスト・セッションの以降の参照処理は、登録・更新した内容を参照するためプライマリで行う
+            readFromPrimary = true;
+            afterCommit.run();
+            return "";
+        } catch (PersistenceException e) {
+            if (target.getTransaction().isActive()) {
+                target.getTransaction().rollback();
+            }
+            //登録・更新できなかったインスタンスをEntityManagerの管理から外す
+            target.clear();
+
+            String message = toErrorMessage(e);
+            if (message == null) {
+                throw e;
+            }
+            return message;
+        } finally {
+            SingleFlight.getInstance().endWrite();
+        }
+    }
+
+    /**
+     * 日報を分割して格納しているかどうか
+     * @return true: 複数のシャードに分割している false: 1つのDBに格納している
+     */
+    protected static boolean isSharded() {
+        return DBUtil.getShardCount() > 1;
+    }
+
+    /**
+     * 指定したシャードに接続するEntityManagerを取得する(登録・更新用 シャード0はプライマリ)
+     * @param shard シャードの番号
+     * @return EntityManager
+     */
+    protected EntityManager shardEm(int shard) {
+        if (shard == 0) {
+            return em;
+        }
+        return shards.computeIfAbsent(shard, DBUtil::createShardEntityManager);
+    }
+
+    /**
+     * 指定したシャードで読み取り専用の参照処理を行うEntityManagerを取得する
+     * (シャード0はレプリカで参照できる場合はレプリカ、それ以外のシャードはシャードのDBで参照する)
+     * @param shard シャードの番号
+     * @return EntityManager
+     */
+    protected EntityManager shardReadEm(int shard) {
+        return shard == 0 ? readEm() : shardEm(shard);
+    }
+
+    /**
+     * 全てのシャードで同じ参照処理を行い、結果のリストをシャードの番号順に返却する
+     * シャードの番号順に1つずつ実行するため、応答時間はシャード毎の応答時間の合計となる
+     * (OFFSETを使用するページ送りでは、各シャードから先頭からページの末尾までを取得するため、後ろのページほど取得件数が増える
+     *  深いページ送りはカーソルを使用すること)
+     * @param query 参照処理(引数は参照処理を行うEntityManager)
+     * @return シャード毎の参照処理の結果
+     */
+    protected <T> List<T> scatter(Function<EntityManager, T> query) {
+        List<T> results = new ArrayList<>(DBUtil.getShardCount());
+        for (int shard = 0; shard < DBUtil.getShardCount(); shard++) {
+            results.add(query.apply(shardReadEm(shard)));
+        }
+        return results;
+    }
+
+    /**
+     * idの降順に並んだシャード毎の取得結果を、idの降順に1つのリストにマージする(k-wayマージ)
+     * @param sorted シャード毎の取得結果(それぞれidの降順)
+     * @param id idを取得する関数
+     * @param skip 先頭から読み飛ばす件数
+     * @param limit 返却する最大件数
+     * @return マージした結果
+     */
+    protected static <T> List<T> mergeByIdDesc(List<List<T>> sorted, ToIntFunction<T> id, int skip, int limit) {
+        //各シャードの先頭の要素のうち、idが最大のものから順に取り出す
+        PriorityQueue<Map.Entry<T, Iterator<T>>> heads = new PriorityQueue<>(
+                Comparator.comparingInt((Map.Entry<T, Iterator<T>> head) -> id.applyAsInt(head.getKey())).reversed());
+        for (List<T> list : sorted) {
+            Iterator<T> it = list.iterator();
+            if (it.hasNext()) {
+                heads.add(new AbstractMap.SimpleEntry<>(it.next(), it));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(limit);
+        int skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Map.Entry<T, Iterator<T>> head = heads.poll();
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(head.getKey());
+            }
+
+            Iterator<T> it = head.getValue();
+            if (it.hasNext()) {
+                heads.add(new AbstractMap.SimpleEntry<>(it.next(), it));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 全てのシャードに同じ内容を保持するエンティティ(従業員等)を、プライマリ以外のシャードに書き込む
+     * idとバージョンはプライマリと同じ値で登録・上書きする(シャード毎のトランザクションで行う)
+     * プライマリのコミット後に呼び出すため、書き込みに失敗したシャードは一定回数再試行し、それでも失敗した場合は
+     * リクエストは失敗させずにエラーを出力する(同じエンティティを再度更新すると、全てのシャードが上書きされる)
+     * @param entity 書き込むエンティティ(プライマリのEntityManagerで管理していないインスタンス)
+     */
+    protected void replicateToShards(Object entity) {
+        for (int shard = 1; shard < DBUtil.getShardCount(); shard++) {
+            EntityManager target = shardEm(shard);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    replicate(target, entity);
+                    break;
+                } catch (RuntimeException e) {
+                    if (attempt >= JpaConst.DB_SHARD_REPLICATE_ATTEMPTS
+                            || !sleep(JpaConst.DB_SHARD_REPLICATE_RETRY_INTERVAL)) {
+                        log.accept(String.format("[shard %d] %s(id=%s)の書き込みに失敗したため、プライマリと内容が異なります: %s",
+                                shard, entity.getClass().getSimpleName(),
+                                em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity), e));
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 指定したシャードにエンティティを書き込む(失敗した場合はロールバックし、例外を発生させる)
+     */
+    private static void replicate(EntityManager target, Object entity) {
+        try {
+            target.getTransaction().begin();
+            target.unwrap(Session.class).replicate(entity, ReplicationMode.OVERWRITE);
+            target.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (target.getTransaction().isActive()) {
+                target.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            target.clear();
+        }
+    }
+
+    /**
+     * 再試行までの時間待機する
+     * @return 待機できた場合true(割り込まれた場合false)
+     */
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 登録・更新時の例外に対応するエラーメッセージを返却する
+     * @param e 例外
+     * @return エラーメッセージ(画面に表示するエラーでない場合はnull)
+     */
+    private static String toErrorMessage(PersistenceException e) {
+        if (e instanceof OptimisticLockException || e.getCause() instanceof OptimisticLockException) {
+            return MessageConst.E_CONFLICT.getMessage();
+        }
+
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException) {
+                //制約名はDBにより大文字・スキーマ名付きで返却されるため、部分一致で判定する
+                ConstraintViolationException cve = (ConstraintViolationException) t;
+                String name = String.valueOf(cve.getConstraintName()) + " " + cve.getSQLException().getMessage();
+                name = name.toLowerCase();
+
+                if (name.contains(JpaConst.REP_UK_EMP_REP_DATE)) {
+                    return MessageConst.E_REP_DATE_EXIST.getMessage();
+                }
+                if (name.contains(JpaConst.EMP_UK_CODE)) {
+                    return MessageConst.E_EMP_CODE_EXIST.getMessage();
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * EntityManagerのクローズ
      */
@@ -21,5 +536,13 @@ public class ServiceBase {
         if (em.isOpen()) {
             em.close();
         }
+        if (replica != null && replica.isOpen()) {
+            replica.close();
+        }
+        for (EntityManager shard : shards.values()) {
+            if (shard.isOpen()) {
+                shard.close();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package services;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import constants.JpaConst;
+
+/**
+ * 同時に実行された同じ参照処理(名前付きクエリと引数が同じもの)を1回のDBへの問い合わせに集約するクラス
+ *
+ * 最初の呼び出し(先行)だけが問い合わせを行い、実行中に到着した同じ参照処理の呼び出し(後続)は先行の結果を共有する
+ * 結果はリクエストをまたいで共有されるため、参照処理は変更できない値(変更不可のリスト・Viewモデル等)を返却すること
+ *
+ * 登録・更新が行われた後に到着した呼び出しが、それより前に開始した問い合わせの結果を受け取らないよう、
+ * 登録・更新のコミット毎に世代を進め、キーに世代を含める
+ * また登録・更新の処理中に到着した呼び出しは集約せずに実行する
+ */
+public class SingleFlight implements SingleFlightMXBean {
+
+    private static final SingleFlight INSTANCE = new SingleFlight();
+
+    /**
+     * 実行中の参照処理(世代・処理名・引数をキーとする)
+     */
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * 世代(登録・更新のコミット毎に進める)
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 処理中の登録・更新の数
+     */
+    private final AtomicInteger writers = new AtomicInteger();
+
+    //計測値
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    private SingleFlight() {
+    }
+
+    public static SingleFlight getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 同じ参照処理が実行中であればその結果を共有し、実行中でなければ参照処理を実行する
+     * @param loader 参照処理
+     * @param name 処理名(名前付きクエリ名)
+     * @param args 引数(equalsで比較できる値)
+     * @return 参照処理の結果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Supplier<T> loader, String name, Object... args) {
+        //世代を先に取得し、その後で登録・更新の処理中でないことを確認する
+        //(コミット後、世代を進める前に到着した呼び出しは、処理中の判定で集約せずに実行される)
+        long current = generation.get();
+        if (writers.get() > 0) {
+            bypassed.increment();
+            executed.increment();
+            return loader.get();
+        }
+
+        List<Object> key = Arrays.asList(current, name, Arrays.asList(args));
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = flights.putIfAbsent(key, flight);
+
+        if (running != null) {
+            //後続: 先行の結果を待って共有する
+            collapsed.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        //先行: 参照処理を実行し、結果を後続に渡す
+        executed.increment();
+        try {
+            T result = loader.get();
+            flights.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 登録・更新の開始を通知する(終了時に必ずendWrite()を呼び出す)
+     */
+    public void beginWrite() {
+        writers.incrementAndGet();
+    }
+
+    /**
+     * 登録・更新の終了(コミットまたはロールバック)を通知し、世代を進める
+     */
+    public void endWrite() {
+        generation.incrementAndGet();
+        writers.decrementAndGet();
+    }
+
+    /**
+     * 計測値をJMXに公開する
+     * @throws JMException
+     */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(JpaConst.SINGLE_FLIGHT_MBEAN_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(this, name);
+        }
+    }
+
+    @Override
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    @Override
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+
+    @Override
+    public long getBypassedCount() {
+        return bypassed.sum();
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return flights.size();
+    }
+}
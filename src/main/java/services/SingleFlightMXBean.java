@@ -0,0 +1,28 @@
+package services;
+
+/**
+ * 同時に実行された同じ参照処理の集約(SingleFlight)の計測値をJMXで公開するインターフェース
+ * (MBean名: constants.JpaConst.SINGLE_FLIGHT_MBEAN_NAME jconsole等から参照する)
+ */
+public interface SingleFlightMXBean {
+
+    /**
+     * @return DBに問い合わせた参照処理の数
+     */
+    long getExecutedCount();
+
+    /**
+     * @return 実行中の同じ参照処理の結果を共有した(DBに問い合わせなかった)呼び出しの数
+     */
+    long getCollapsedCount();
+
+    /**
+     * @return 登録・更新の処理中のため集約せずに実行した呼び出しの数
+     */
+    long getBypassedCount();
+
+    /**
+     * @return 実行中の参照処理の数
+     */
+    int getInFlightCount();
+}
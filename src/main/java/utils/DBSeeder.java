@@ -0,0 +1,240 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+
+import constants.JpaConst;
+import constants.PropertyConst;
+
+/**
+ * 負荷試験・ベンチマーク用のテストデータを投入するクラス
+ * JDBCのバッチ更新で従業員N人と日報M件を一括登録する
+ *
+ * 従業員の社員番号は "S" + id、パスワードは社員番号と同じ文字列とする(idが最小の従業員は管理者)
+ * 日報は従業員に順番に割り当て、同じ従業員の日報は今日から1日ずつ遡った日付で作成する
+ * idは採番テーブルから登録件数分を割り当てる(アプリケーションが採番済みのidとは重複しない)
+ * 日報を分割して格納する場合は、シャード毎に全ての従業員と、シャードに格納する日報を登録する
+ * (日報のidは、採番テーブルの値 × DBの数 + シャードの番号 とする utils.ShardedTableGenerator と同じ)
+ *
+ * 使い方: java -Ddrs.db.profile=embedded utils.DBSeeder 従業員数 日報数
+ */
+public class DBSeeder {
+
+    /**
+     * 1回のバッチで登録する件数
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) {
+        int employees = Integer.parseInt(args[0]);
+        int reports = Integer.parseInt(args[1]);
+
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            long start = System.currentTimeMillis();
+            seed(em, employees, reports, loadPepper());
+            System.out.println(String.format("seeded %d employees and %d reports in %d ms",
+                    employees, reports, System.currentTimeMillis() - start));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 従業員と日報のテストデータを登録する
+     * @param em EntityManager
+     * @param employees 従業員数
+     * @param reports 日報数
+     * @param pepper pepper文字列
+     */
+    public static void seed(EntityManager em, int employees, int reports, String pepper) {
+        seed(em, employees, reports, pepper, 0, 1);
+    }
+
+    /**
+     * 従業員と、指定したシャードに格納する日報のテストデータを登録する
+     * 全てのシャードに同じ件数を指定して登録すると、分割しない場合と同じ従業員・日報(idを除く)となる
+     * @param em 登録するシャードに接続するEntityManager
+     * @param employees 従業員数
+     * @param reports 日報数(全てのシャードの合計)
+     * @param pepper pepper文字列
+     * @param shard シャードの番号
+     * @param shardCount DBの数
+     */
+    public static void seed(EntityManager em, int employees, int reports, String pepper, int shard, int shardCount) {
+        em.getTransaction().begin();
+        em.unwrap(Session.class).doWork(connection -> {
+            int firstEmpId = allocateIds(connection, JpaConst.TABLE_EMP, JpaConst.EMP_COL_ID, employees);
+
+            //シャードに格納する日報の件数分、採番テーブルの値を割り当てる
+            int shardReports = 0;
+            for (int i = 0; i < reports; i++) {
+                if (Math.floorMod(firstEmpId + (i % employees), shardCount) == shard) {
+                    shardReports++;
+                }
+            }
+            int firstRepSeq = allocateIds(connection, JpaConst.TABLE_REP, JpaConst.REP_COL_ID, shardReports);
+
+            insertEmployees(connection, firstEmpId, employees, pepper);
+            insertReports(connection, firstRepSeq, firstEmpId, employees, reports, shard, shardCount);
+        });
+        em.getTransaction().commit();
+    }
+
+    /**
+     * アプリケーションと同じpepper文字列をapplication.propertiesから取得する
+     * @return pepper文字列(設定がない場合はnull)
+     */
+    public static String loadPepper() {
+        try (InputStream is = DBSeeder.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (is == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(is);
+            return properties.getProperty(PropertyConst.PEPPER.getValue());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 従業員データを登録する
+     */
+    private static void insertEmployees(Connection connection, int firstId, int count, String pepper)
+            throws SQLException {
+        String sql = String.format("INSERT INTO %s (%s, %s, %s, %s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                JpaConst.TABLE_EMP, JpaConst.EMP_COL_ID, JpaConst.EMP_COL_CODE, JpaConst.EMP_COL_NAME,
+                JpaConst.EMP_COL_PASS, JpaConst.EMP_COL_ADMIN_FLAG, JpaConst.EMP_COL_CREATED_AT,
+                JpaConst.EMP_COL_UPDATED_AT, JpaConst.EMP_COL_DELETE_FLAG, JpaConst.EMP_COL_VERSION);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                int id = firstId + i;
+                String code = "S" + id;
+
+                ps.setInt(1, id);
+                ps.setString(2, code);
+                ps.setString(3, "従業員" + id);
+                ps.setString(4, EncryptUtil.getPasswordEncrypt(code, pepper));
+                ps.setInt(5, i == 0 ? JpaConst.ROLE_ADMIN : JpaConst.ROLE_GENERAL);
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+                ps.setInt(8, JpaConst.EMP_DEL_FALSE);
+                ps.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * 日報データを登録する(従業員が指定したシャードに該当する日報のみ)
+     */
+    private static void insertReports(Connection connection, int firstSeq, int firstEmpId, int employees, int count,
+            int shard, int shardCount) throws SQLException {
+        String sql = String.format(
+                "INSERT INTO %s (%s, %s, %s, %s, %s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                JpaConst.TABLE_REP, JpaConst.REP_COL_ID, JpaConst.REP_COL_EMP, JpaConst.REP_COL_REP_DATE,
+                JpaConst.REP_COL_TITLE, JpaConst.REP_COL_CONTENT, JpaConst.REP_COL_CREATED_AT,
+                JpaConst.REP_COL_UPDATED_AT, JpaConst.REP_COL_CLOCK_IN, JpaConst.REP_COL_CLOCK_OUT,
+                JpaConst.REP_COL_VERSION);
+        LocalDate today = LocalDate.now();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int seq = firstSeq;
+            int added = 0;
+            for (int i = 0; i < count; i++) {
+                int empId = firstEmpId + (i % employees);
+                if (Math.floorMod(empId, shardCount) != shard) {
+                    continue;
+                }
+                LocalDate day = today.minusDays(i / employees);
+
+                ps.setInt(1, seq++ * shardCount + shard);
+                ps.setInt(2, empId);
+                ps.setDate(3, Date.valueOf(day));
+                ps.setString(4, day + "の日報");
+                ps.setString(5, "本日の業務内容");
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, Timestamp.valueOf(day.atTime(9, 0)));
+                ps.setTimestamp(9, Timestamp.valueOf(day.atTime(18, 0)));
+                ps.addBatch();
+
+                if (++added % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * 採番テーブルから指定した件数分のidを割り当て、先頭のidを返却する
+     * 採番テーブルには割り当て済みのidの最大値を設定する(Hibernateの既定 hibernate.id.generator.stored_last_used=true と同じ)
+     * 採番テーブルに行がない場合(アプリケーションが未登録の場合)は、登録済みのidの最大値の次から割り当てる
+     */
+    private static int allocateIds(Connection connection, String table, String idColumn, int count)
+            throws SQLException {
+        int firstId = nextId(connection, table, idColumn);
+        boolean exists = false;
+
+        String select = String.format("SELECT %s FROM %s WHERE %s = ? FOR UPDATE",
+                JpaConst.ID_GEN_COL_NEXT_VAL, JpaConst.TABLE_ID_GEN, JpaConst.ID_GEN_COL_NAME);
+        try (PreparedStatement ps = connection.prepareStatement(select)) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    exists = true;
+                    firstId = Math.max(firstId, rs.getInt(1) + 1);
+                }
+            }
+        }
+
+        //割り当てたidの最大値を採番テーブルに設定する
+        String write = exists
+                ? String.format("UPDATE %s SET %s = ? WHERE %s = ?",
+                        JpaConst.TABLE_ID_GEN, JpaConst.ID_GEN_COL_NEXT_VAL, JpaConst.ID_GEN_COL_NAME)
+                : String.format("INSERT INTO %s (%s, %s) VALUES (?, ?)",
+                        JpaConst.TABLE_ID_GEN, JpaConst.ID_GEN_COL_NEXT_VAL, JpaConst.ID_GEN_COL_NAME);
+        try (PreparedStatement ps = connection.prepareStatement(write)) {
+            ps.setLong(1, (long) firstId + count - 1);
+            ps.setString(2, table);
+            ps.executeUpdate();
+        }
+
+        return firstId;
+    }
+
+    /**
+     * 指定したテーブルで次に使用するidを取得する
+     */
+    private static int nextId(Connection connection, String table, String idColumn) throws SQLException {
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery(String.format("SELECT MAX(%s) FROM %s", idColumn, table))) {
+            rs.next();
+            return rs.getInt(1) + 1;
+        }
+    }
+}
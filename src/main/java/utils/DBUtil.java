@@ -1,5 +1,8 @@
 package utils;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
@@ -10,17 +13,161 @@ public class DBUtil {
 
     private static EntityManagerFactory emf;
 
+    private static EntityManagerFactory replicaEmf;
+
+    //シャード1以降に接続するEntityManagerFactory(シャードの番号をキーとする)
+    private static final Map<Integer, EntityManagerFactory> shardEmfs = new HashMap<>();
+
     //EntityManagerインスタンスを生成
     public static EntityManager createEntityManager() {
         return _getEntityManagerFactory().createEntityManager();
     }
 
+    //レプリカに接続するEntityManagerインスタンスを生成(レプリカの接続先が指定されていない場合はプライマリに接続する)
+    public static EntityManager createReplicaEntityManager() {
+        if (!hasReplica()) {
+            return createEntityManager();
+        }
+        return _getReplicaEntityManagerFactory().createEntityManager();
+    }
+
+    //指定したシャードに接続するEntityManagerインスタンスを生成(シャード0はプライマリに接続する)
+    public static EntityManager createShardEntityManager(int shard) {
+        if (shard == 0) {
+            return createEntityManager();
+        }
+        return _getShardEntityManagerFactory(shard).createEntityManager();
+    }
+
+    //日報を分割して格納するDBの数
+    public static int getShardCount() {
+        return Math.max(1, Integer.getInteger(JpaConst.DB_SHARDS_KEY, 1));
+    }
+
+    //従業員のid、または日報のidから、日報を格納するシャードの番号を取得する
+    public static int shardOf(int id) {
+        return Math.floorMod(id, getShardCount());
+    }
+
+    //レプリカの接続先が指定されているかどうか
+    public static boolean hasReplica() {
+        return System.getProperty(JpaConst.DB_REPLICA_URL_KEY) != null;
+    }
+
+    //組み込みDBのプロファイルが選択されているかどうか
+    public static boolean isEmbedded() {
+        return JpaConst.DB_PROFILE_EMBEDDED.equals(System.getProperty(JpaConst.DB_PROFILE_KEY));
+    }
+
     //EntityManagerFactoryインスタンスを生成
-    private static EntityManagerFactory _getEntityManagerFactory() {
+    private static synchronized EntityManagerFactory _getEntityManagerFactory() {
         if (emf == null) {
-            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME);
+            if (isEmbedded()) {
+                //組み込みDB(H2 インメモリ)に接続し、指定があればテストデータを投入する
+                emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME_EMBEDDED,
+                        _getOverrideProperties());
+                _seedIfRequested(emf, 0);
+            } else {
+                emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME,
+                        _getOverrideProperties());
+            }
         }
 
         return emf;
     }
+
+    //レプリカに接続するEntityManagerFactoryインスタンスを生成
+    private static synchronized EntityManagerFactory _getReplicaEntityManagerFactory() {
+        if (replicaEmf == null) {
+            Map<String, String> properties = _getOverrideProperties();
+            properties.put("javax.persistence.jdbc.url", System.getProperty(JpaConst.DB_REPLICA_URL_KEY));
+            if (System.getProperty(JpaConst.DB_REPLICA_USER_KEY) != null) {
+                properties.put("javax.persistence.jdbc.user", System.getProperty(JpaConst.DB_REPLICA_USER_KEY));
+            }
+            if (System.getProperty(JpaConst.DB_REPLICA_PASSWORD_KEY) != null) {
+                properties.put("javax.persistence.jdbc.password", System.getProperty(JpaConst.DB_REPLICA_PASSWORD_KEY));
+            }
+
+            if (isEmbedded()) {
+                //組み込みDBのレプリカは別のインメモリDBとし、プライマリと同じテストデータを投入する
+                //(レプリケーションは行わないため、登録・更新の内容はレプリカに反映されない)
+                replicaEmf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME_EMBEDDED,
+                        properties);
+                _seedIfRequested(replicaEmf, 0);
+            } else {
+                //レプリカのテーブルはプライマリからレプリケーションされるため作成しない
+                properties.put("javax.persistence.schema-generation.database.action", "none");
+                replicaEmf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME, properties);
+            }
+        }
+
+        return replicaEmf;
+    }
+
+    //シャード1以降に接続するEntityManagerFactoryインスタンスを生成
+    private static synchronized EntityManagerFactory _getShardEntityManagerFactory(int shard) {
+        EntityManagerFactory factory = shardEmfs.get(shard);
+
+        if (factory == null) {
+            Map<String, String> properties = _getOverrideProperties();
+            properties.put(JpaConst.DB_SHARD_INDEX_KEY, String.valueOf(shard));
+
+            if (isEmbedded()) {
+                //組み込みDBのシャードは別のインメモリDBとし、シャードに格納する日報と全ての従業員のテストデータを投入する
+                properties.put("javax.persistence.jdbc.url", String.format(JpaConst.DB_SHARD_EMBEDDED_URL, shard));
+                factory = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME_EMBEDDED, properties);
+                _seedIfRequested(factory, shard);
+            } else {
+                String urlKey = String.format(JpaConst.DB_SHARD_URL_KEY, shard);
+                String url = System.getProperty(urlKey);
+                if (url == null) {
+                    throw new IllegalStateException(urlKey + " が指定されていません");
+                }
+                properties.put("javax.persistence.jdbc.url", url);
+
+                String user = System.getProperty(String.format(JpaConst.DB_SHARD_USER_KEY, shard));
+                if (user != null) {
+                    properties.put("javax.persistence.jdbc.user", user);
+                }
+                String password = System.getProperty(String.format(JpaConst.DB_SHARD_PASSWORD_KEY, shard));
+                if (password != null) {
+                    properties.put("javax.persistence.jdbc.password", password);
+                }
+                factory = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME, properties);
+            }
+            shardEmfs.put(shard, factory);
+        }
+
+        return factory;
+    }
+
+    //システムプロパティに指定されたJPA/Hibernateの設定値を取得する(persistence.xmlの設定を上書きする)
+    //(例: -Djavax.persistence.jdbc.url=jdbc:h2:mem:test ベンチマーク等でDB接続先を差し替える場合に使用)
+    private static Map<String, String> _getOverrideProperties() {
+        Map<String, String> overrides = new HashMap<>();
+
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("javax.persistence.") || key.startsWith("hibernate.")) {
+                overrides.put(key, System.getProperty(key));
+            }
+        }
+
+        return overrides;
+    }
+
+    //システムプロパティでテストデータの件数が指定されている場合、組み込みDBにテストデータを投入する
+    //(日報を分割して格納する場合は、指定したシャードに格納する日報のみを投入する)
+    private static void _seedIfRequested(EntityManagerFactory factory, int shard) {
+        int employees = Integer.getInteger(JpaConst.DB_SEED_EMPLOYEES_KEY, 0);
+        int reports = Integer.getInteger(JpaConst.DB_SEED_REPORTS_KEY, 0);
+
+        if (employees > 0) {
+            EntityManager em = factory.createEntityManager();
+            try {
+                DBSeeder.seed(em, employees, reports, DBSeeder.loadPepper(), shard, getShardCount());
+            } finally {
+                em.close();
+            }
+        }
+    }
 }
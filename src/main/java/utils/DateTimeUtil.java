@@ -0,0 +1,105 @@
+package utils;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 日付・日時(java.time)を画面表示用の文字列に変換するクラス
+ * JSPからはEL関数(WEB-INF/tlds/datetime.tld)として呼び出す
+ * また、入力フォームの文字列(input type="date" / "datetime-local")を日付・日時に変換する
+ *
+ * fmt:parseDate / fmt:formatDate のように文字列 → java.util.Date → 文字列 と変換し直さず、
+ * スレッドセーフで不変なDateTimeFormatterを共有して直接フォーマットする
+ */
+public class DateTimeUtil {
+
+    //日付(例: 2021-04-01)
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    //日時 分まで(例: 2021-04-01 09:00)
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    //日時 秒まで(例: 2021-04-01 09:00:00)
+    private static final DateTimeFormatter SECOND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    //入力フォームの日付(例: 2021-04-01 存在しない日付は補正せずエラーとする)
+    private static final DateTimeFormatter INPUT_DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+    //入力フォームの日時(例: 2021-04-01T09:00 秒は省略可 存在しない日時は補正せずエラーとする)
+    private static final DateTimeFormatter INPUT_DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    //format()で指定されたパターンのDateTimeFormatter(パターン毎に1回だけ生成する)
+    private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    //日付を yyyy-MM-dd 形式の文字列に変換する(nullの場合は空文字)
+    public static String formatDate(LocalDate date) {
+        return date == null ? "" : DATE.format(date);
+    }
+
+    //日時を yyyy-MM-dd HH:mm 形式の文字列に変換する(nullの場合は空文字)
+    public static String formatMinute(LocalDateTime dateTime) {
+        return dateTime == null ? "" : MINUTE.format(dateTime);
+    }
+
+    //日時を yyyy-MM-dd HH:mm:ss 形式の文字列に変換する(nullの場合は空文字)
+    public static String formatDateTime(LocalDateTime dateTime) {
+        return dateTime == null ? "" : SECOND.format(dateTime);
+    }
+
+    //日付・日時を指定したパターンの文字列に変換する(nullの場合は空文字)
+    public static String format(TemporalAccessor temporal, String pattern) {
+        if (temporal == null) {
+            return "";
+        }
+        return FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern).format(temporal);
+    }
+
+    //yyyy-MM-dd 形式の文字列を日付に変換する(形式が不正な場合、存在しない日付の場合はnull)
+    public static LocalDate parseInputDate(String text) {
+        if (!isDate(text) || text.length() != 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text, INPUT_DATE);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    //yyyy-MM-ddTHH:mm(:ss) 形式の文字列を日時に変換する(形式が不正な場合、存在しない日時の場合はnull)
+    public static LocalDateTime parseInputDateTime(String text) {
+        if (!isDate(text) || (text.length() != 16 && text.length() != 19)
+                || text.charAt(10) != 'T' || !isDigits(text, 11, 13) || text.charAt(13) != ':'
+                || !isDigits(text, 14, 16)
+                || (text.length() == 19 && (text.charAt(16) != ':' || !isDigits(text, 17, 19)))) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text, INPUT_DATE_TIME);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    //先頭が yyyy-MM-dd の形式になっているかどうか
+    //(不正な入力毎に例外を発生させないよう、形式の誤りは解析の前に判定する 例外は存在しない日付の場合のみ)
+    private static boolean isDate(String text) {
+        return text != null && text.length() >= 10
+                && isDigits(text, 0, 4) && text.charAt(4) == '-'
+                && isDigits(text, 5, 7) && text.charAt(7) == '-'
+                && isDigits(text, 8, 10);
+    }
+
+    //指定した範囲の文字が全て数字(0-9)かどうか
+    private static boolean isDigits(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * MySQLの名前付きロック(GET_LOCK)を取得して処理を行うクラス
+ * ロックは接続毎に保持されるため、同じDBに接続する複数のノード・コマンドの間で処理が重複しない
+ * (トランザクションをコミットしてもロックは解放されない)
+ */
+final class NamedLock {
+
+    private NamedLock() {
+    }
+
+    /**
+     * 名前付きロックを取得して指定した処理を行い、ロックを解放する
+     * @param connection ロックを取得する接続(処理もこの接続で行うこと)
+     * @param name ロックの名前
+     * @param timeout ロックの取得を待機する時間(秒)
+     * @param work 処理
+     * @return ロックを取得して処理を行った場合true(待機時間内に取得できなかった場合false)
+     */
+    static boolean withLock(Connection connection, String name, int timeout, SqlWork work) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, name);
+            ps.setInt(2, timeout);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    return false;
+                }
+            }
+        }
+
+        try {
+            work.run();
+        } finally {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                ps.setString(1, name);
+                ps.executeQuery().close();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 接続するDBがMySQLかどうか(MySQL以外のDBでは名前付きロックを使用できない)
+     */
+    static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().contains("MySQL");
+    }
+
+    /**
+     * 名前付きロックを取得して行う処理
+     */
+    @FunctionalInterface
+    interface SqlWork {
+        void run() throws SQLException;
+    }
+}
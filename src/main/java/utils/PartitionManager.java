@@ -0,0 +1,350 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+
+import constants.JpaConst;
+
+/**
+ * 日報テーブルを日付(report_date)の月毎のパーティションに分割して管理するクラス(MySQLのみ)
+ *
+ * 参照の大半は直近の月の日報のため、月毎に分割し、日付を条件とするクエリが参照するデータを該当する月の分に限定する
+ *  ・パーティションに分割されていない場合は分割する
+ *    (MySQLの制約により、主キーに日付を含め、外部キー制約を削除する 外部キー制約は再作成しない)
+ *  ・翌月以降のパーティションを事前に作成する(作成済みの月より後の日報は pmax に格納される)
+ * 日付を条件とするクエリ(JpaConstのreport_date = :日付)は、該当する月のパーティションのみを参照する
+ *
+ * 古い日報を日報テーブルから移す処理は行わない(utils.ReportArchiver のアーカイブで行い、アプリケーションから参照できる)
+ *
+ * 分割(外部キー制約の削除・主キーの変更を含む)はテーブルの再構築・ロックを伴うため、コマンドでのみ行う
+ * アプリケーションの各ノードでは、分割済みの日報テーブルに翌月以降のパーティションを事前に作成することのみを行う
+ * いずれも名前付きロック(GET_LOCK)を取得して行い、複数のノード・コマンドが同時にパーティションを変更しないようにする
+ * (アプリケーションではロックを待機せず、他で処理中の場合は何もしない)
+ *
+ * 使い方: java utils.PartitionManager (システムプロパティはアプリケーションと同じ)
+ */
+public class PartitionManager {
+
+    private static final PartitionManager INSTANCE = new PartitionManager();
+
+    /**
+     * パーティション名の年月の書式
+     */
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * パーティションの保守を行うスレッド(開始前はnull)
+     */
+    private ScheduledExecutorService scheduler;
+
+    private PartitionManager() {
+    }
+
+    public static PartitionManager getInstance() {
+        return INSTANCE;
+    }
+
+    public static void main(String[] args) {
+        maintainAll(System.out::println);
+    }
+
+    /**
+     * パーティションの管理が有効な場合、起動時と一定間隔で翌月以降のパーティションを作成する
+     * (分割は行わない コマンドで行う)
+     * @param log 実行したDDL・エラーの出力先
+     */
+    public synchronized void start(Consumer<String> log) {
+        if (!Boolean.getBoolean(JpaConst.DB_PARTITION_ENABLED_KEY) || scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-partition-manager");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> addAheadAll(log), 0, JpaConst.DB_PARTITION_INTERVAL_HOURS,
+                TimeUnit.HOURS);
+    }
+
+    /**
+     * パーティションの保守を終了する
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 全てのシャードについてパーティションの保守(分割・翌月以降のパーティションの作成)を行う
+     * コマンドから実行する(他のノード・コマンドがパーティションを変更中の場合は、終了を一定時間待機する)
+     * @param log 実行したDDL・エラーの出力先
+     */
+    public static void maintainAll(Consumer<String> log) {
+        int ahead = Integer.getInteger(JpaConst.DB_PARTITION_AHEAD_KEY, JpaConst.DB_PARTITION_AHEAD_DEFAULT);
+
+        forEachShard(log, em -> maintain(em, LocalDate.now(), ahead));
+    }
+
+    /**
+     * 全てのシャードについて、分割済みの日報テーブルに翌月以降のパーティションを作成する
+     * アプリケーションの各ノードから実行する(他のノード・コマンドがパーティションを変更中の場合は何もしない)
+     * @param log 実行したDDL・エラーの出力先
+     */
+    public static void addAheadAll(Consumer<String> log) {
+        int ahead = Integer.getInteger(JpaConst.DB_PARTITION_AHEAD_KEY, JpaConst.DB_PARTITION_AHEAD_DEFAULT);
+
+        forEachShard(log, em -> addAhead(em, LocalDate.now(), ahead));
+    }
+
+    /**
+     * 全てのシャードについて指定した処理を行い、実行したDDL・エラーを出力する
+     */
+    private static void forEachShard(Consumer<String> log, Function<EntityManager, List<String>> task) {
+        for (int shard = 0; shard < DBUtil.getShardCount(); shard++) {
+            EntityManager em = DBUtil.createShardEntityManager(shard);
+            try {
+                for (String ddl : task.apply(em)) {
+                    log.accept(String.format("[shard %d] %s", shard, ddl));
+                }
+            } catch (RuntimeException e) {
+                log.accept(String.format("[shard %d] パーティションの保守に失敗しました: %s", shard, e));
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * 日報テーブルのパーティションの保守を行う(MySQL以外のDBでは何もしない コマンドから実行する)
+     * @param em 保守を行うDBに接続するEntityManager
+     * @param today 今日の日付
+     * @param ahead 事前に作成しておく翌月以降のパーティションの数
+     * @return 実行したDDLのリスト
+     */
+    public static List<String> maintain(EntityManager em, LocalDate today, int ahead) {
+        List<String> executed = new ArrayList<>();
+
+        em.unwrap(Session.class).doWork(connection -> {
+            if (!NamedLock.isMySql(connection)) {
+                return;
+            }
+
+            boolean locked = withLock(connection, JpaConst.DB_PARTITION_LOCK_TIMEOUT, () -> {
+                YearMonth current = YearMonth.from(today);
+                YearMonth last = current.plusMonths(Math.max(0, ahead));
+                List<YearMonth> months = getPartitionMonths(connection);
+
+                if (months.isEmpty()) {
+                    //パーティションに分割されていない場合は、過去の日報の月から事前に作成する月までのパーティションに分割する
+                    YearMonth first = getFirstMonth(connection, current);
+                    for (String fk : getForeignKeys(connection)) {
+                        execute(connection, executed, dropForeignKeyDdl(fk));
+                    }
+                    execute(connection, executed, primaryKeyDdl());
+                    execute(connection, executed, partitionDdl(first, last));
+                } else {
+                    reorganize(connection, executed, months, last);
+                }
+            });
+            if (!locked) {
+                throw new IllegalStateException("他のノード・コマンドがパーティションを変更中です");
+            }
+        });
+
+        return executed;
+    }
+
+    /**
+     * 分割済みの日報テーブルに、翌月以降のパーティションを作成する(MySQL以外のDBでは何もしない)
+     * 分割されていない場合は分割せずにエラーとする(分割はコマンドで行う)
+     * @param em 保守を行うDBに接続するEntityManager
+     * @param today 今日の日付
+     * @param ahead 事前に作成しておく翌月以降のパーティションの数
+     * @return 実行したDDLのリスト(他のノード・コマンドがパーティションを変更中の場合は空)
+     */
+    public static List<String> addAhead(EntityManager em, LocalDate today, int ahead) {
+        List<String> executed = new ArrayList<>();
+
+        em.unwrap(Session.class).doWork(connection -> {
+            if (!NamedLock.isMySql(connection)) {
+                return;
+            }
+
+            withLock(connection, 0, () -> {
+                List<YearMonth> months = getPartitionMonths(connection);
+                if (months.isEmpty()) {
+                    throw new IllegalStateException("日報テーブルがパーティションに分割されていません(utils.PartitionManager を実行してください)");
+                }
+                reorganize(connection, executed, months, YearMonth.from(today).plusMonths(Math.max(0, ahead)));
+            });
+        });
+
+        return executed;
+    }
+
+    /**
+     * 事前に作成する月までのパーティションを、pmaxを分割して作成する(作成済みの場合は何もしない)
+     */
+    private static void reorganize(Connection connection, List<String> executed, List<YearMonth> months, YearMonth last)
+            throws SQLException {
+        YearMonth created = months.get(months.size() - 1);
+        if (created.isBefore(last)) {
+            execute(connection, executed, reorganizeDdl(created.plusMonths(1), last));
+        }
+    }
+
+    /**
+     * パーティションを変更する間の名前付きロック(GET_LOCK)を取得して指定した処理を行い、ロックを解放する
+     * (複数のノード・コマンドの間で同時にパーティションを変更しない)
+     * @param timeout ロックの取得を待機する時間(秒)
+     * @return ロックを取得して処理を行った場合true(待機時間内に取得できなかった場合false)
+     */
+    private static boolean withLock(Connection connection, int timeout, NamedLock.SqlWork work) throws SQLException {
+        return NamedLock.withLock(connection, JpaConst.DB_PARTITION_LOCK_NAME, timeout, work);
+    }
+
+    /**
+     * 日報テーブルのパーティションの月を取得する(pmaxを除く 分割されていない場合は空)
+     */
+    private static List<YearMonth> getPartitionMonths(Connection connection) throws SQLException {
+        String sql = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL"
+                + " ORDER BY PARTITION_ORDINAL_POSITION";
+        List<YearMonth> months = new ArrayList<>();
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, JpaConst.TABLE_REP);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    if (!name.equals(JpaConst.REP_PARTITION_MAX)) {
+                        months.add(toMonth(name));
+                    }
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * パーティションに分割する際の最初の月を取得する(最も古い日報の月 ただし過去の月の最大数まで)
+     */
+    private static YearMonth getFirstMonth(Connection connection, YearMonth current) throws SQLException {
+        YearMonth limit = current.minusMonths(JpaConst.DB_PARTITION_HISTORY_MAX);
+
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery(String.format("SELECT MIN(%s) FROM %s",
+                        JpaConst.REP_COL_REP_DATE, JpaConst.TABLE_REP))) {
+            rs.next();
+            java.sql.Date min = rs.getDate(1);
+            if (min == null) {
+                return current;
+            }
+            YearMonth first = YearMonth.from(min.toLocalDate());
+            return first.isBefore(limit) ? limit : first.isAfter(current) ? current : first;
+        }
+    }
+
+    /**
+     * 日報テーブルの外部キー制約の名前を取得する
+     */
+    private static List<String> getForeignKeys(Connection connection) throws SQLException {
+        String sql = "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS"
+                + " WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        List<String> names = new ArrayList<>();
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, JpaConst.TABLE_REP);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * DDLを実行し、実行したDDLのリストに追加する
+     */
+    private static void execute(Connection connection, List<String> executed, String ddl) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate(ddl);
+        }
+        executed.add(ddl);
+    }
+
+    /**
+     * 外部キー制約を削除するDDL(パーティションに分割したテーブルには外部キー制約を設定できない)
+     */
+    static String dropForeignKeyDdl(String name) {
+        return String.format("ALTER TABLE %s DROP FOREIGN KEY %s", JpaConst.TABLE_REP, name);
+    }
+
+    /**
+     * 主キーに日付を含めるDDL(パーティションのキーは全ての一意キーに含める必要がある)
+     */
+    static String primaryKeyDdl() {
+        return String.format("ALTER TABLE %s DROP PRIMARY KEY, ADD PRIMARY KEY (%s, %s)",
+                JpaConst.TABLE_REP, JpaConst.REP_COL_ID, JpaConst.REP_COL_REP_DATE);
+    }
+
+    /**
+     * 指定した月の範囲のパーティションに分割するDDL
+     */
+    static String partitionDdl(YearMonth first, YearMonth last) {
+        return String.format("ALTER TABLE %s PARTITION BY RANGE COLUMNS(%s) (%s)",
+                JpaConst.TABLE_REP, JpaConst.REP_COL_REP_DATE, partitionDefinitions(first, last));
+    }
+
+    /**
+     * pmaxを分割し、指定した月の範囲のパーティションを作成するDDL
+     */
+    static String reorganizeDdl(YearMonth first, YearMonth last) {
+        return String.format("ALTER TABLE %s REORGANIZE PARTITION %s INTO (%s)",
+                JpaConst.TABLE_REP, JpaConst.REP_PARTITION_MAX, partitionDefinitions(first, last));
+    }
+
+    /**
+     * 指定した月の範囲の月毎のパーティションと、pmaxの定義
+     */
+    private static String partitionDefinitions(YearMonth first, YearMonth last) {
+        StringBuilder sb = new StringBuilder();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            sb.append(String.format("PARTITION %s%s VALUES LESS THAN ('%s'), ",
+                    JpaConst.REP_PARTITION_PREFIX, month.format(MONTH_FORMAT), month.plusMonths(1).atDay(1)));
+        }
+        sb.append(String.format("PARTITION %s VALUES LESS THAN (MAXVALUE)", JpaConst.REP_PARTITION_MAX));
+        return sb.toString();
+    }
+
+    /**
+     * パーティション名から月を取得する
+     */
+    private static YearMonth toMonth(String partition) {
+        if (!partition.startsWith(JpaConst.REP_PARTITION_PREFIX)) {
+            throw new IllegalStateException("管理対象外のパーティションがあります: " + partition);
+        }
+        return YearMonth.parse(partition.substring(JpaConst.REP_PARTITION_PREFIX.length()), MONTH_FORMAT);
+    }
+}
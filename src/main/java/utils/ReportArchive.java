@@ -0,0 +1,596 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import constants.JpaConst;
+import models.Employee;
+import models.Report;
+
+/**
+ * 日報テーブルから移した古い日報を、ローカルディスク上の圧縮したセグメントファイルとして読み書きするクラス
+ *
+ * セグメントファイルは書き込み後に変更しない(追記のみ 新たにアーカイブする日報は新しいファイルに格納する)
+ * ファイルの構成:
+ *  ・ブロック: (従業員id, 日付)の順に並べた日報を、一定件数毎にDeflateで圧縮したもの
+ *  ・疎インデックス: ブロック毎の先頭の日報の(従業員id, 日付)と、ブロックの位置・長さ
+ *  ・idのインデックス: 日報のidの昇順に、idと日報を格納しているブロックの番号
+ *  ・フッター: 各インデックスの位置・件数、idと(従業員id, 日付)の範囲
+ * 参照時はファイルをメモリマップし、インデックスを二分探索して該当するブロックのみを展開する
+ * (DBのバッファプールは使用せず、参照した部分のみOSのページキャッシュに載る)
+ *
+ * アーカイブした日報は参照のみ可能で、更新はできない
+ * 同じ日報を複数のセグメントファイルに格納している場合は、新しいセグメントファイル(ファイル名の作成日時・連番が大きいもの)を優先する
+ * アーカイブのディレクトリは、全てのノードで同じディレクトリ(共有ファイルシステム等)を指定すること
+ * (ノード毎に異なるディレクトリを指定すると、他のノードがアーカイブした日報を参照できない)
+ */
+public class ReportArchive {
+
+    private static final ReportArchive INSTANCE = new ReportArchive();
+
+    /**
+     * セグメントファイルの拡張子(書き込み中のファイルは .tmp)
+     */
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * セグメントファイルの識別子("DRSA")とフォーマットのバージョン
+     */
+    private static final int MAGIC = 0x44525341;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 疎インデックス(従業員id, 日付, ブロックの位置, ブロックの長さ)・idのインデックス(id, ブロックの番号)の1件のバイト数
+     */
+    private static final int SPARSE_ENTRY_SIZE = 4 + 8 + 8 + 4;
+    private static final int ID_ENTRY_SIZE = 4 + 4;
+
+    /**
+     * フッターのバイト数
+     */
+    private static final int FOOTER_SIZE = 8 + 4 + 8 + 4 + 4 + 4 + 4 + 8 + 4 + 4;
+
+    /**
+     * 同じミリ秒に作成したセグメントファイルの名前を区別する連番
+     */
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * セグメントファイルを新しい順(ファイル名の作成日時・連番の降順)に並べる順序
+     * (作成日時・連番が同じ場合はファイル名の順)
+     */
+    private static final Comparator<Path> NEWEST_FIRST = Comparator
+            .comparingLong((Path file) -> nameField(file, 2))
+            .thenComparingLong(file -> nameField(file, 3))
+            .reversed()
+            .thenComparing(file -> file.getFileName().toString());
+
+    /**
+     * 読み込み済みのセグメントファイル(ファイルのパスをキーとし、新しい順に並べる)
+     */
+    private volatile Map<Path, Segment> segments = Collections.emptyMap();
+
+    /**
+     * セグメントファイルを読み込んだ時点のディレクトリの更新日時(未読み込みの場合は-1)
+     */
+    private long loadedAt = -1;
+
+    private ReportArchive() {
+    }
+
+    public static ReportArchive getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * アーカイブのディレクトリが指定されているかどうか
+     */
+    public static boolean isEnabled() {
+        return System.getProperty(JpaConst.DB_ARCHIVE_DIR_KEY) != null;
+    }
+
+    /**
+     * アーカイブのディレクトリを取得する
+     */
+    public static Path getDirectory() {
+        return Paths.get(System.getProperty(JpaConst.DB_ARCHIVE_DIR_KEY));
+    }
+
+    /**
+     * idを条件にアーカイブした日報を1件取得する
+     * (新しいセグメントファイルから順に検索する)
+     * @param id 日報のid
+     * @return 日報(作成者の従業員はidのみを設定する 該当する日報がない場合は空)
+     */
+    public Optional<Report> findById(int id) {
+        for (Segment segment : getSegments()) {
+            if (id < segment.minId || id > segment.maxId) {
+                continue;
+            }
+            int block = segment.findBlockById(id);
+            if (block >= 0) {
+                for (Report r : segment.readBlock(block)) {
+                    if (r.getId() == id) {
+                        return Optional.of(r);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 従業員と日付を条件にアーカイブした日報を1件取得する
+     * (新しいセグメントファイルから順に検索する)
+     * @param employeeId 従業員のid
+     * @param reportDate 日付
+     * @return 日報(作成者の従業員はidのみを設定する 該当する日報がない場合は空)
+     */
+    public Optional<Report> findByEmployeeAndDate(int employeeId, LocalDate reportDate) {
+        long date = reportDate.toEpochDay();
+
+        for (Segment segment : getSegments()) {
+            if (segment.blockCount == 0
+                    || compare(employeeId, date, segment.firstEmployeeId(), segment.firstReportDate()) < 0
+                    || compare(employeeId, date, segment.lastEmployeeId, segment.lastReportDate) > 0) {
+                continue;
+            }
+            for (Report r : segment.readBlock(segment.findBlockByKey(employeeId, date))) {
+                if (r.getEmployee().getId() == employeeId && r.getReportDate().equals(reportDate)) {
+                    return Optional.of(r);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 新しいセグメントファイルを書き込むWriterを作成する
+     * @param directory アーカイブのディレクトリ
+     * @param shard 日報を格納していたシャードの番号(ファイル名に使用する)
+     * @return Writer
+     */
+    public static Writer createWriter(Path directory, int shard) throws IOException {
+        Files.createDirectories(directory);
+        String name = String.format("segment-%d-%d-%d", shard, System.currentTimeMillis(), sequence.incrementAndGet());
+        return new Writer(directory.resolve(name + ".tmp"), directory.resolve(name + SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 次の参照時にディレクトリを確認し、追加されたセグメントファイルを読み込む
+     * (同じプロセスでセグメントファイルを追加した場合に使用する)
+     */
+    public synchronized void reload() {
+        loadedAt = -1;
+    }
+
+    /**
+     * ディレクトリが更新されている場合は、追加されたセグメントファイルを読み込む
+     * @return 読み込み済みのセグメントファイル(新しい順)
+     */
+    private synchronized Iterable<Segment> getSegments() {
+        if (!isEnabled()) {
+            return Collections.emptyList();
+        }
+
+        Path directory = getDirectory();
+        try {
+            if (!Files.isDirectory(directory)) {
+                return Collections.emptyList();
+            }
+            long modified = Files.getLastModifiedTime(directory).toMillis();
+            if (modified == loadedAt) {
+                return segments.values();
+            }
+
+            Map<Path, Segment> loaded = new TreeMap<>(NEWEST_FIRST);
+            loaded.putAll(segments);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    if (!loaded.containsKey(file)) {
+                        loaded.put(file, Segment.open(file));
+                    }
+                }
+            }
+            segments = loaded;
+            loadedAt = modified;
+            return loaded.values();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * セグメントファイルの名前(segment-シャード-作成日時-連番.seg)から数値の項目を取得する
+     * @param file セグメントファイル
+     * @param index 項目の位置(作成日時は2、連番は3)
+     * @return 項目の値(名前の形式が異なる場合は0)
+     */
+    private static long nameField(Path file, int index) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+            name = name.substring(0, name.length() - SEGMENT_SUFFIX.length());
+        }
+        String[] fields = name.split("-");
+        try {
+            return fields.length == 4 ? Long.parseLong(fields[index]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * (従業員id, 日付)の順序で比較する
+     */
+    private static int compare(int employeeId1, long reportDate1, int employeeId2, long reportDate2) {
+        int c = Integer.compare(employeeId1, employeeId2);
+        return c != 0 ? c : Long.compare(reportDate1, reportDate2);
+    }
+
+    /**
+     * メモリマップしたセグメントファイル
+     */
+    private static final class Segment {
+
+        private final MappedByteBuffer buffer;
+        private final long sparseOffset;
+        private final int blockCount;
+        private final long idOffset;
+        private final int idCount;
+        private final int minId;
+        private final int maxId;
+        private final int lastEmployeeId;
+        private final long lastReportDate;
+
+        private Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            int footer = buffer.capacity() - FOOTER_SIZE;
+            if (footer < 0 || buffer.getInt(footer + FOOTER_SIZE - 4) != MAGIC
+                    || buffer.getInt(footer + FOOTER_SIZE - 8) != FORMAT_VERSION) {
+                throw new IllegalStateException("セグメントファイルの形式が不正です");
+            }
+            this.sparseOffset = buffer.getLong(footer);
+            this.blockCount = buffer.getInt(footer + 8);
+            this.idOffset = buffer.getLong(footer + 12);
+            this.idCount = buffer.getInt(footer + 20);
+            this.minId = buffer.getInt(footer + 24);
+            this.maxId = buffer.getInt(footer + 28);
+            this.lastEmployeeId = buffer.getInt(footer + 32);
+            this.lastReportDate = buffer.getLong(footer + 36);
+        }
+
+        static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return new Segment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        int firstEmployeeId() {
+            return buffer.getInt((int) sparseOffset);
+        }
+
+        long firstReportDate() {
+            return buffer.getLong((int) sparseOffset + 4);
+        }
+
+        /**
+         * 疎インデックスを二分探索し、(従業員id, 日付)の日報を格納している可能性があるブロックの番号を取得する
+         * (先頭の日報が指定した値以下のブロックのうち、最後のブロック)
+         */
+        int findBlockByKey(int employeeId, long reportDate) {
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                int entry = (int) sparseOffset + mid * SPARSE_ENTRY_SIZE;
+                if (compare(buffer.getInt(entry), buffer.getLong(entry + 4), employeeId, reportDate) <= 0) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * idのインデックスを二分探索し、日報を格納しているブロックの番号を取得する(該当しない場合は-1)
+         */
+        int findBlockById(int id) {
+            int low = 0;
+            int high = idCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = (int) idOffset + mid * ID_ENTRY_SIZE;
+                int c = Integer.compare(buffer.getInt(entry), id);
+                if (c == 0) {
+                    return buffer.getInt(entry + 4);
+                } else if (c < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 指定した番号のブロックを展開し、日報のリストを取得する
+         */
+        List<Report> readBlock(int block) {
+            int entry = (int) sparseOffset + block * SPARSE_ENTRY_SIZE;
+            long offset = buffer.getLong(entry + 12);
+            int length = buffer.getInt(entry + 20);
+
+            byte[] compressed = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) offset);
+            view.get(compressed);
+
+            Inflater inflater = new Inflater();
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(inflater, compressed)))) {
+                int count = in.readInt();
+                List<Report> reports = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    reports.add(readReport(in));
+                }
+                return reports;
+            } catch (IOException | DataFormatException e) {
+                throw new IllegalStateException("セグメントファイルのブロックを展開できません", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private static byte[] inflate(Inflater inflater, byte[] compressed) throws DataFormatException {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("ブロックが途中で終了しています");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * セグメントファイルを書き込むクラス
+     * 日報は(従業員id, 日付)の昇順に追加する
+     * finish() で書き込みを完了するまでは一時ファイルに書き込み、完了時にセグメントファイルの名前に変更する
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final Path temporary;
+        private final Path target;
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        /**
+         * 書き込み中のブロック
+         */
+        private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+        private DataOutputStream block = new DataOutputStream(blockBytes);
+        private int blockRows;
+
+        /**
+         * 疎インデックス・idのインデックス(書き込み完了時にファイルの末尾に書き込む)
+         */
+        private final ByteArrayOutputStream sparseBytes = new ByteArrayOutputStream();
+        private final DataOutputStream sparse = new DataOutputStream(sparseBytes);
+        private final List<long[]> ids = new ArrayList<>();
+
+        private long position;
+        private int blockCount;
+        private int lastEmployeeId = Integer.MIN_VALUE;
+        private long lastReportDate = Long.MIN_VALUE;
+        private boolean finished;
+
+        private Writer(Path temporary, Path target) throws IOException {
+            this.temporary = temporary;
+            this.target = target;
+            this.file = new FileOutputStream(temporary.toFile());
+            this.out = new DataOutputStream(new BufferedOutputStream(file));
+        }
+
+        /**
+         * 日報を追加する
+         * @param r 日報(作成者の従業員はidのみを使用する)
+         */
+        public void add(Report r) throws IOException {
+            int employeeId = r.getEmployee().getId();
+            long reportDate = r.getReportDate().toEpochDay();
+            if (compare(employeeId, reportDate, lastEmployeeId, lastReportDate) <= 0) {
+                throw new IllegalArgumentException("日報は(従業員id, 日付)の昇順に追加してください");
+            }
+
+            if (blockRows == 0) {
+                sparse.writeInt(employeeId);
+                sparse.writeLong(reportDate);
+            }
+            writeReport(block, r);
+            ids.add(new long[] { r.getId(), blockCount });
+            lastEmployeeId = employeeId;
+            lastReportDate = reportDate;
+
+            if (++blockRows == JpaConst.DB_ARCHIVE_BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * 追加した日報の件数
+         */
+        public int size() {
+            return ids.size();
+        }
+
+        /**
+         * 書き込みを完了し、セグメントファイルの名前に変更する(ディスクへの書き込みを待つ)
+         * @return セグメントファイルのパス
+         */
+        public Path finish() throws IOException {
+            if (blockRows > 0) {
+                flushBlock();
+            }
+
+            long sparseOffset = position;
+            out.write(sparseBytes.toByteArray());
+            position += sparseBytes.size();
+
+            long idOffset = position;
+            ids.sort((a, b) -> Long.compare(a[0], b[0]));
+            for (long[] id : ids) {
+                out.writeInt((int) id[0]);
+                out.writeInt((int) id[1]);
+            }
+            position += (long) ids.size() * ID_ENTRY_SIZE;
+
+            out.writeLong(sparseOffset);
+            out.writeInt(blockCount);
+            out.writeLong(idOffset);
+            out.writeInt(ids.size());
+            out.writeInt(ids.isEmpty() ? 0 : (int) ids.get(0)[0]);
+            out.writeInt(ids.isEmpty() ? -1 : (int) ids.get(ids.size() - 1)[0]);
+            out.writeInt(lastEmployeeId);
+            out.writeLong(lastReportDate);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(MAGIC);
+            position += FOOTER_SIZE;
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("セグメントファイルが大きすぎます(メモリマップできません)");
+            }
+
+            out.flush();
+            file.getFD().sync();
+            out.close();
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+            return target;
+        }
+
+        /**
+         * 書き込みを完了していない場合は一時ファイルを削除する
+         */
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!finished) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        /**
+         * 書き込み中のブロックを圧縮してファイルに書き込み、疎インデックスに位置・長さを追加する
+         */
+        private void flushBlock() throws IOException {
+            block.flush();
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(blockBytes.size() + 4);
+            new DataOutputStream(raw).writeInt(blockRows);
+            blockBytes.writeTo(raw);
+
+            deflater.reset();
+            deflater.setInput(raw.toByteArray());
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+
+            sparse.writeLong(position);
+            sparse.writeInt(compressed.size());
+            compressed.writeTo(out);
+            position += compressed.size();
+            blockCount++;
+
+            blockBytes.reset();
+            block = new DataOutputStream(blockBytes);
+            blockRows = 0;
+        }
+    }
+
+    /**
+     * 日報1件を書き込む
+     */
+    private static void writeReport(DataOutputStream out, Report r) throws IOException {
+        out.writeInt(r.getId());
+        out.writeInt(r.getEmployee().getId());
+        out.writeLong(r.getReportDate().toEpochDay());
+        writeString(out, r.getTitle());
+        writeString(out, r.getContent());
+        writeString(out, r.getCreatedAt().toString());
+        writeString(out, r.getUpdatedAt().toString());
+        writeString(out, r.getClock_in().toString());
+        writeString(out, r.getClock_out().toString());
+        out.writeInt(r.getVersion());
+    }
+
+    /**
+     * 日報1件を読み込む(作成者の従業員はidのみを設定する)
+     */
+    private static Report readReport(DataInputStream in) throws IOException {
+        Report r = new Report();
+        r.setId(in.readInt());
+        Employee employee = new Employee();
+        employee.setId(in.readInt());
+        r.setEmployee(employee);
+        r.setReportDate(LocalDate.ofEpochDay(in.readLong()));
+        r.setTitle(readString(in));
+        r.setContent(readString(in));
+        r.setCreatedAt(LocalDateTime.parse(readString(in)));
+        r.setUpdatedAt(LocalDateTime.parse(readString(in)));
+        r.setClock_in(LocalDateTime.parse(readString(in)));
+        r.setClock_out(LocalDateTime.parse(readString(in)));
+        r.setVersion(in.readInt());
+        return r;
+    }
+
+    /**
+     * 文字列をUTF-8のバイト数と内容で書き込む(writeUTFは64KBまでのため使用しない)
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,258 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+
+import constants.JpaConst;
+import models.Employee;
+import models.Report;
+
+/**
+ * 一定期間より前の日付の日報を、日報テーブルからアーカイブ(utils.ReportArchive のセグメントファイル)に移すクラス
+ *
+ * 日報を(従業員id, 日付)の順に一意制約のインデックスで取得してセグメントファイルに書き込み、
+ * 書き込みが完了した(ディスクに書き込まれた)後に、日報テーブルから一定件数毎に削除する
+ * 取得後に更新された日報(バージョンが変わった日報)は削除しない(日報テーブルの内容が優先して参照される)
+ * アーカイブのディレクトリは全てのノードで同じディレクトリ(共有ファイルシステム等)を指定すること
+ * シャード毎に名前付きロック(GET_LOCK MySQLのみ)を取得して行い、複数のノード・コマンドが同じ日報をアーカイブしないようにする
+ * (アプリケーションではロックを待機せず、他で処理中の場合はそのシャードのアーカイブを行わない)
+ *
+ * 使い方: java -Ddrs.archive.dir=ディレクトリ utils.ReportArchiver (その他のシステムプロパティはアプリケーションと同じ)
+ */
+public class ReportArchiver {
+
+    private static final ReportArchiver INSTANCE = new ReportArchiver();
+
+    /**
+     * アーカイブを行うスレッド(開始前はnull)
+     */
+    private ScheduledExecutorService scheduler;
+
+    private ReportArchiver() {
+    }
+
+    public static ReportArchiver getInstance() {
+        return INSTANCE;
+    }
+
+    public static void main(String[] args) {
+        archiveAll(System.out::println, JpaConst.DB_ARCHIVE_LOCK_TIMEOUT);
+    }
+
+    /**
+     * アーカイブが有効な場合、起動時と一定間隔でアーカイブを行う
+     * @param log アーカイブした件数・エラーの出力先
+     */
+    public synchronized void start(Consumer<String> log) {
+        if (!Boolean.getBoolean(JpaConst.DB_ARCHIVE_ENABLED_KEY) || !ReportArchive.isEnabled() || scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-report-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> archiveAll(log, 0), 0, JpaConst.DB_ARCHIVE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * アーカイブを終了する
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 全てのシャードについて、古い日報をアーカイブする
+     * @param log アーカイブした件数・エラーの出力先
+     * @param lockTimeout 他のノード・コマンドがアーカイブ中の場合に、終了を待機する時間(秒)
+     */
+    public static void archiveAll(Consumer<String> log, int lockTimeout) {
+        int age = Integer.getInteger(JpaConst.DB_ARCHIVE_AGE_KEY, JpaConst.DB_ARCHIVE_AGE_DEFAULT);
+        LocalDate before = LocalDate.now().minusDays(age);
+
+        for (int shard = 0; shard < DBUtil.getShardCount(); shard++) {
+            EntityManager em = DBUtil.createShardEntityManager(shard);
+            try {
+                long start = System.currentTimeMillis();
+                int archived = archive(em, ReportArchive.getDirectory(), shard, before, lockTimeout);
+                if (archived < 0) {
+                    log.accept(String.format("[shard %d] 他のノード・コマンドがアーカイブ中のため、アーカイブを行いませんでした", shard));
+                    continue;
+                }
+                log.accept(String.format("[shard %d] %s より前の日報 %d件をアーカイブしました(%d ms)",
+                        shard, before, archived, System.currentTimeMillis() - start));
+            } catch (RuntimeException e) {
+                log.accept(String.format("[shard %d] 日報のアーカイブに失敗しました: %s", shard, e));
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * 指定した日付より前の日付の日報を、セグメントファイルに書き込み、日報テーブルから削除する
+     * @param em アーカイブするDBに接続するEntityManager
+     * @param directory アーカイブのディレクトリ
+     * @param shard シャードの番号
+     * @param before 日付(この日付より前の日報をアーカイブする)
+     * @param lockTimeout 他のノード・コマンドがアーカイブ中の場合に、終了を待機する時間(秒)
+     * @return 日報テーブルから削除した日報の件数(待機時間内に名前付きロックを取得できなかった場合は-1)
+     */
+    public static int archive(EntityManager em, Path directory, int shard, LocalDate before, int lockTimeout) {
+        int[] archived = { -1 };
+
+        em.unwrap(Session.class).doWork(connection -> {
+            if (!NamedLock.isMySql(connection)) {
+                //名前付きロックを使用できないDB(組み込みDB 単一のノードのみ)では、ロックを取得せずに行う
+                archived[0] = archive(connection, directory, shard, before);
+                return;
+            }
+            NamedLock.withLock(connection, JpaConst.DB_ARCHIVE_LOCK_NAME + shard, lockTimeout,
+                    () -> archived[0] = archive(connection, directory, shard, before));
+        });
+
+        return archived[0];
+    }
+
+    /**
+     * 指定した接続で、指定した日付より前の日付の日報をセグメントファイルに書き込み、日報テーブルから削除する
+     */
+    private static int archive(Connection connection, Path directory, int shard, LocalDate before)
+            throws SQLException {
+        int archived = 0;
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            //前回取得した最後の日報の(従業員id, 日付)
+            int lastEmployeeId = Integer.MIN_VALUE;
+            LocalDate lastReportDate = LocalDate.EPOCH;
+
+            while (true) {
+                List<Report> reports = new ArrayList<>();
+                try (ReportArchive.Writer writer = ReportArchive.createWriter(directory, shard)) {
+                    while (writer.size() < JpaConst.DB_ARCHIVE_SEGMENT_ROWS) {
+                        List<Report> batch = selectBatch(connection, before, lastEmployeeId, lastReportDate,
+                                Math.min(JpaConst.DB_ARCHIVE_BATCH_SIZE, JpaConst.DB_ARCHIVE_SEGMENT_ROWS - writer.size()));
+                        connection.commit();
+                        if (batch.isEmpty()) {
+                            break;
+                        }
+                        for (Report r : batch) {
+                            writer.add(r);
+                        }
+                        reports.addAll(batch);
+                        Report last = batch.get(batch.size() - 1);
+                        lastEmployeeId = last.getEmployee().getId();
+                        lastReportDate = last.getReportDate();
+                    }
+
+                    if (reports.isEmpty()) {
+                        return archived;
+                    }
+                    writer.finish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                ReportArchive.getInstance().reload();
+
+                //セグメントファイルの書き込み後に、日報テーブルから一定件数毎に削除する
+                for (int i = 0; i < reports.size(); i += JpaConst.DB_ARCHIVE_BATCH_SIZE) {
+                    archived += deleteBatch(connection,
+                            reports.subList(i, Math.min(i + JpaConst.DB_ARCHIVE_BATCH_SIZE, reports.size())));
+                    connection.commit();
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * 指定した日付より前の日付の日報を、(従業員id, 日付)が指定した値より後ろから一定件数取得する
+     */
+    private static List<Report> selectBatch(Connection connection, LocalDate before, int lastEmployeeId,
+            LocalDate lastReportDate, int limit) throws SQLException {
+        String sql = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s"
+                + " WHERE %s < ? AND (%s > ? OR (%s = ? AND %s > ?)) ORDER BY %s, %s LIMIT ?",
+                JpaConst.REP_COL_ID, JpaConst.REP_COL_EMP, JpaConst.REP_COL_REP_DATE, JpaConst.REP_COL_TITLE,
+                JpaConst.REP_COL_CONTENT, JpaConst.REP_COL_CREATED_AT, JpaConst.REP_COL_UPDATED_AT,
+                JpaConst.REP_COL_CLOCK_IN, JpaConst.REP_COL_CLOCK_OUT, JpaConst.REP_COL_VERSION, JpaConst.TABLE_REP,
+                JpaConst.REP_COL_REP_DATE, JpaConst.REP_COL_EMP, JpaConst.REP_COL_EMP, JpaConst.REP_COL_REP_DATE,
+                JpaConst.REP_COL_EMP, JpaConst.REP_COL_REP_DATE);
+        List<Report> reports = new ArrayList<>();
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(before));
+            ps.setInt(2, lastEmployeeId);
+            ps.setInt(3, lastEmployeeId);
+            ps.setDate(4, Date.valueOf(lastReportDate));
+            ps.setInt(5, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Employee employee = new Employee();
+                    employee.setId(rs.getInt(2));
+                    reports.add(new Report(
+                            rs.getInt(1),
+                            employee,
+                            rs.getDate(3).toLocalDate(),
+                            rs.getString(4),
+                            rs.getString(5),
+                            rs.getTimestamp(6).toLocalDateTime(),
+                            rs.getTimestamp(7).toLocalDateTime(),
+                            rs.getTimestamp(8).toLocalDateTime(),
+                            rs.getTimestamp(9).toLocalDateTime(),
+                            rs.getInt(10)));
+                }
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * 日報をidとバージョンを条件に削除する(取得後に更新された日報は削除しない)
+     * @return 削除した件数
+     */
+    private static int deleteBatch(Connection connection, List<Report> reports) throws SQLException {
+        String sql = String.format("DELETE FROM %s WHERE %s = ? AND %s = ?",
+                JpaConst.TABLE_REP, JpaConst.REP_COL_ID, JpaConst.REP_COL_VERSION);
+        int deleted = 0;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Report r : reports) {
+                ps.setInt(1, r.getId());
+                ps.setInt(2, r.getVersion());
+                ps.addBatch();
+            }
+            for (int count : ps.executeBatch()) {
+                deleted += Math.max(0, count);
+            }
+        }
+        return deleted;
+    }
+}
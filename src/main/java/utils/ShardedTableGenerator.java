@@ -0,0 +1,53 @@
+package utils;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import constants.JpaConst;
+
+/**
+ * 日報を分割して格納するDB(シャード)毎に、重複しないidを採番するジェネレータ
+ *
+ * シャード毎の採番テーブルから採番した値を n とし、id = n × DBの数 + シャードの番号 とする
+ * (idをDBの数で割った余りが、日報を格納するシャードの番号となる)
+ * シャードをまたいでもidは重複せず、idの降順は各シャードの登録順をおおよそ交互に並べた順となる
+ * 分割しない場合(DBの数が1)は、採番テーブルの値をそのままidとする
+ */
+public class ShardedTableGenerator extends TableGenerator {
+
+    /**
+     * DBの数
+     */
+    private int shardCount;
+
+    /**
+     * このジェネレータを使用するEntityManagerFactoryが接続するシャードの番号
+     */
+    private int shardIndex;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        super.configure(type, params, serviceRegistry);
+
+        //シャードの番号はシャード毎のEntityManagerFactoryのプロパティに設定されている(プライマリは設定なし)
+        Object index = serviceRegistry.getService(ConfigurationService.class).getSettings()
+                .get(JpaConst.DB_SHARD_INDEX_KEY);
+        shardIndex = index == null ? 0 : Integer.parseInt(index.toString());
+        shardCount = DBUtil.getShardCount();
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object obj) {
+        Number n = (Number) super.generate(session, obj);
+        if (shardCount == 1) {
+            return n;
+        }
+        return Math.toIntExact(n.longValue() * shardCount + shardIndex);
+    }
+}
@@ -0,0 +1,4 @@
+-- 楽観ロック用のバージョンカラムを追加する(既存のデータベースに適用する)
+-- 既存の行のバージョンは0とする
+ALTER TABLE employees ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE reports ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- 従業員毎の日報の日付、社員番号に一意制約を追加する(既存のデータベースに適用する)
+-- 重複する日報・社員番号がある場合は、先に修正しておくこと
+ALTER TABLE reports ADD CONSTRAINT uk_reports_employee_id_report_date UNIQUE (employee_id, report_date);
+
+-- 社員番号には、Hibernateが生成した名前(UK_で始まる)の一意制約が作成されている
+-- エラーメッセージの判定に制約名を使用するため、削除して uk_employees_code として作成し直す
+SET @uk := (SELECT INDEX_NAME FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'employees' AND COLUMN_NAME = 'code'
+              AND SEQ_IN_INDEX = 1 AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY' LIMIT 1);
+SET @sql := IF(@uk IS NULL,
+        'ALTER TABLE employees ADD CONSTRAINT uk_employees_code UNIQUE (code)',
+        CONCAT('ALTER TABLE employees DROP INDEX `', @uk, '`, ADD CONSTRAINT uk_employees_code UNIQUE (code)'));
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
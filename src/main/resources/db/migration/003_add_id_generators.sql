@@ -0,0 +1,18 @@
+-- idの採番方式を自動採番(AUTO_INCREMENT)から採番テーブルに変更する(既存のデータベースに適用する)
+-- 採番テーブルの値は、割り当て済みのidの最大値(登録済みのidの最大値)とする
+-- アプリケーションを停止した状態で実行すること
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'employees', COALESCE(MAX(id), 0) FROM employees;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'reports', COALESCE(MAX(id), 0) FROM reports;
+
+-- idはアプリケーションが指定するため、AUTO_INCREMENTは不要となる
+-- employees.idは日報テーブルの外部キー制約が参照しているため、外部キーの確認を無効にして変更する
+-- (有効なままではエラー1833となる 型は変更しないため、既存の制約・データはそのまま有効)
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE reports MODIFY id INT NOT NULL;
+ALTER TABLE employees MODIFY id INT NOT NULL;
+SET FOREIGN_KEY_CHECKS = 1;
@@ -34,5 +34,6 @@
 </select>
 <br /><br />
 <input type="hidden" name="${AttributeConst.EMP_ID.getValue()}" value="${employee.id}" />
+<input type="hidden" name="${AttributeConst.EMP_VERSION.getValue()}" value="${employee.version}" />
 <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
 <button type="submit">投稿</button>
\ No newline at end of file
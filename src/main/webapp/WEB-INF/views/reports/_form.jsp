@@ -1,6 +1,6 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
-<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ taglib prefix="dt" uri="/WEB-INF/tlds/datetime.tld" %>
 <%@ page import="constants.AttributeConst" %>
 
 <c:if test="${errors != null}">
@@ -12,9 +12,8 @@
 
     </div>
 </c:if>
-<fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
 <label for="${AttributeConst.REP_DATE.getValue()}">日付</label><br />
-<input type="date" name="${AttributeConst.REP_DATE.getValue()}" id="${AttributeConst.REP_DATE.getValue()}" value="<fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' />" />
+<input type="date" name="${AttributeConst.REP_DATE.getValue()}" id="${AttributeConst.REP_DATE.getValue()}" value="${dt:date(report.reportDate)}" />
 <br /><br />
 
 <label>氏名</label><br />
@@ -25,16 +24,14 @@
 <input type="text" name="${AttributeConst.REP_TITLE.getValue()}" id="${AttributeConst.REP_TITLE.getValue()}" value="${report.title}" />
 <br /><br />
 
-<fmt:parseDate value="${report.clock_in}" pattern="yyyy-MM-dd'T'HH:mm" var="clock_in" type="date" />
 <label for="${AttributeConst.REP_CLOCK_IN.getValue()}">出勤日時</label><br />
-<input type="datetime-local" name="${AttributeConst.REP_CLOCK_IN.getValue()}" id="${AttributeConst.REP_CLOCK_IN.getValue()}" value="<fmt:formatDate value='${clock_in}' pattern="yyyy-MM-dd HH:mm" />" />
+<input type="datetime-local" name="${AttributeConst.REP_CLOCK_IN.getValue()}" id="${AttributeConst.REP_CLOCK_IN.getValue()}" value="${dt:minute(report.clock_in)}" />
 <br /><br />
 
 
 
-<fmt:parseDate value="${report.clock_out}" pattern="yyyy-MM-dd'T'HH:mm" var="clock_out" type="date" />
 <label for="${AttributeConst.REP_CLOCK_OUT.getValue()}">退勤日時</label><br />
-<input type="datetime-local" name="${AttributeConst.REP_CLOCK_OUT.getValue()}" id="${AttributeConst.REP_CLOCK_OUT.getValue()}" value="<fmt:formatDate value='${clock_out}' pattern="yyyy-MM-dd HH:mm" />" />
+<input type="datetime-local" name="${AttributeConst.REP_CLOCK_OUT.getValue()}" id="${AttributeConst.REP_CLOCK_OUT.getValue()}" value="${dt:minute(report.clock_out)}" />
 <br /><br />
 
 
@@ -42,5 +39,6 @@
 <textarea  name="${AttributeConst.REP_CONTENT.getValue()}" id="${AttributeConst.REP_CONTENT.getValue()}" rows="10" cols="50">${report.content}</textarea>
 <br /><br />
 <input type="hidden" name="${AttributeConst.REP_ID.getValue()}" value="${report.id}" />
+<input type="hidden" name="${AttributeConst.REP_VERSION.getValue()}" value="${report.version}" />
 <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
 <button type="submit">投稿</button>
\ No newline at end of file
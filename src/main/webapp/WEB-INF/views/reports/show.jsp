@@ -1,6 +1,6 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
-<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt"%>
+<%@ taglib prefix="dt" uri="/WEB-INF/tlds/datetime.tld" %>
 <%@ page import="constants.ForwardConst" %>
 
 <c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
@@ -16,22 +16,19 @@
             <tbody>
                 <tr>
                     <th>氏名</th>
-                    <td><c:out value="${report.employee.name}" /></td>
+                    <td><c:out value="${report.author.name}" /></td>
                 </tr>
                 <tr>
                     <th>日付</th>
-                    <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
-                    <td><fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' /></td>
+                    <td>${dt:date(report.reportDate)}</td>
                 </tr>
                 <tr>
                     <th>出勤時刻</th>
-                    <fmt:parseDate value="${report.clock_in}" pattern="yyyy-MM-dd'T'HH:mm" var="clock_in" type="date" />
-                     <td><fmt:formatDate value='${clock_in}' pattern="yyyy-MM-dd HH:mm" /></td>
+                     <td>${dt:minute(report.clock_in)}</td>
                 </tr>
                 <tr>
                     <th>退勤時刻</th>
-                    <fmt:parseDate value="${report.clock_out}" pattern="yyyy-MM-dd'T'HH:mm" var="clock_out" type="date" />
-                     <td><fmt:formatDate value='${clock_out}' pattern="yyyy-MM-dd HH:mm" /></td>
+                     <td>${dt:minute(report.clock_out)}</td>
                 </tr>
                 <tr>
                     <th>内容</th>
@@ -39,18 +36,16 @@
                 </tr>
                 <tr>
                     <th>登録日時</th>
-                    <fmt:parseDate value="${report.createdAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="createDay" type="date" />
-                    <td><fmt:formatDate value="${createDay}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
+                    <td>${dt:dateTime(report.createdAt)}</td>
                 </tr>
                 <tr>
                     <th>更新日時</th>
-                    <fmt:parseDate value="${report.updatedAt}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="updateDay" type="date" />
-                    <td><fmt:formatDate value="${updateDay}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
+                    <td>${dt:dateTime(report.updatedAt)}</td>
                 </tr>
             </tbody>
         </table>
 
-        <c:if test="${sessionScope.login_employee.id == report.employee.id}">
+        <c:if test="${sessionScope.login_employee.id == report.author.id}">
             <p>
                 <a href="<c:url value='?action=${actRep}&command=${commEdt}&id=${report.id}' />">この日報を編集する</a>
             </p>